@@ -71,6 +71,12 @@ jmh {
     if (!jmhExclude.isNullOrBlank()) {
         excludes = listOf(jmhExclude)
     }
+
+    // Example: -PjmhProfilers=gc
+    val jmhProfilers = findProperty("jmhProfilers") as? String
+    if (!jmhProfilers.isNullOrBlank()) {
+        profilers = jmhProfilers.split(",")
+    }
 }
 
 group = project.properties["lib_group_id"] as String
@@ -0,0 +1,243 @@
+package io.github.leawind.inventory.event;
+
+import io.github.leawind.inventory.event.EventEmitter.EventControl;
+import io.github.leawind.inventory.event.EventEmitter.Subscription;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Dispatches events of a {@link ConcurrentEventEmitter} asynchronously onto an {@link Executor}, so
+ * that slow listeners do not stall the producer.
+ *
+ * <p>Listeners are grouped into <em>tiers</em> of equal priority. Tiers run one after another in
+ * descending priority order: a tier starts only after every listener of the previous tier has
+ * returned. If any listener calls {@link EventControl#stop()}, no further tier is started.
+ *
+ * <ul>
+ *   <li>{@link Mode#PER_LISTENER}: every listener runs as its own task, so listeners of the same
+ *       tier run concurrently. With a virtual-thread-per-task executor (Java 21+ {@code
+ *       Executors.newVirtualThreadPerTaskExecutor()}) this gives one virtual thread per listener.
+ *   <li>{@link Mode#PER_TIER}: every tier runs as one task that invokes its listeners sequentially,
+ *       exactly like {@link EventEmitter#emit(Object)} does. {@link EventControl#stop()} also skips
+ *       the remaining listeners of the same tier.
+ * </ul>
+ *
+ * <p><strong>Backpressure:</strong> at most {@code maxPendingEmissions} emissions may be in flight
+ * at the same time. Emissions are not queued: {@link #dispatch} starts the first tier before it
+ * returns, and when the limit is reached it <em>blocks the producer</em> until an earlier emission
+ * completes. {@link #tryDispatch} never blocks, and rejects the emission instead.
+ *
+ * <p>Tiers that complete before the next one is scheduled, e.g. with a direct executor, are run in
+ * a loop on the same thread, so the number of tiers does not grow the stack.
+ *
+ * <p>If a listener throws, the returned future completes exceptionally with that exception and no
+ * further tier is started.
+ */
+public class AsyncEventDispatcher {
+  /** How listeners are scheduled onto the executor */
+  public enum Mode {
+    /** Each listener runs as its own task; listeners of the same priority run concurrently */
+    PER_LISTENER,
+    /** Each priority tier runs as one task that invokes its listeners sequentially */
+    PER_TIER,
+  }
+
+  private final Executor executor;
+  private final Mode mode;
+  private final int maxPendingEmissions;
+  private final Semaphore pendingPermits;
+
+  /**
+   * @param executor the executor that runs listeners
+   * @param mode how listeners are scheduled onto the executor
+   * @param maxPendingEmissions maximum number of emissions in flight before {@link #dispatch}
+   *     blocks and {@link #tryDispatch} rejects
+   */
+  public AsyncEventDispatcher(Executor executor, Mode mode, int maxPendingEmissions) {
+    if (maxPendingEmissions <= 0) {
+      throw new IllegalArgumentException("maxPendingEmissions must be > 0");
+    }
+    this.executor = executor;
+    this.mode = mode;
+    this.maxPendingEmissions = maxPendingEmissions;
+    this.pendingPermits = new Semaphore(maxPendingEmissions);
+  }
+
+  /** Returns the number of emissions that have been dispatched but not completed yet. */
+  public int pendingEmissions() {
+    return maxPendingEmissions - pendingPermits.availablePermits();
+  }
+
+  /**
+   * Dispatches an event to the listeners of the given emitter.
+   *
+   * <p>Blocks while {@code maxPendingEmissions} emissions are already in flight. If the calling
+   * thread is interrupted while waiting, the returned future fails with {@link
+   * InterruptedException} and the interrupt status is restored.
+   *
+   * @param emitter the emitter whose listeners are invoked
+   * @param event the event payload; may be {@code null}
+   * @return a future that completes once dispatch has finished
+   */
+  public <E> CompletableFuture<Void> dispatch(
+      ConcurrentEventEmitter<E> emitter, @Nullable E event) {
+    try {
+      pendingPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return start(emitter, event);
+  }
+
+  /**
+   * Dispatches an event to the listeners of the given emitter, unless {@code maxPendingEmissions}
+   * emissions are already in flight.
+   *
+   * @param emitter the emitter whose listeners are invoked
+   * @param event the event payload; may be {@code null}
+   * @return a future that completes once dispatch has finished, or that has already failed with
+   *     {@link RejectedExecutionException} if the limit is reached
+   */
+  public <E> CompletableFuture<Void> tryDispatch(
+      ConcurrentEventEmitter<E> emitter, @Nullable E event) {
+    if (!pendingPermits.tryAcquire()) {
+      return CompletableFuture.failedFuture(
+          new RejectedExecutionException(
+              "Already " + maxPendingEmissions + " emissions in flight"));
+    }
+    return start(emitter, event);
+  }
+
+  private <E> CompletableFuture<Void> start(
+      ConcurrentEventEmitter<E> emitter, @Nullable E event) {
+    Emission<E> emission = new Emission<>(emitter, event, emitter.dispatchTable().select(event));
+    emission.runTiersFrom(0);
+    return emission.result;
+  }
+
+  private final class Emission<E> {
+    final ConcurrentEventEmitter<E> emitter;
+    final @Nullable E event;
+    final Subscription<E>[] snapshot;
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    /** Whether a listener has called {@link EventControl#stop()} */
+    volatile boolean stopped = false;
+
+    Emission(ConcurrentEventEmitter<E> emitter, @Nullable E event, Subscription<E>[] snapshot) {
+      this.emitter = emitter;
+      this.event = event;
+      this.snapshot = snapshot;
+    }
+
+    /**
+     * Runs the tier starting at index {@code start}, then the following tiers
+     *
+     * <p>Whichever of this loop and the completion of a tier comes last goes on with the next tier,
+     * so a tier that has already completed does not add a stack frame.
+     */
+    void runTiersFrom(int start) {
+      while (!stopped && start < snapshot.length) {
+        int priority = snapshot[start].priority;
+        int end = start + 1;
+        while (end < snapshot.length && snapshot[end].priority == priority) {
+          end++;
+        }
+        int nextStart = end;
+
+        CompletableFuture<Void> tier;
+        try {
+          tier = mode == Mode.PER_TIER ? runSequentially(start, end) : runConcurrently(start, end);
+        } catch (Throwable e) {
+          // e.g. RejectedExecutionException
+          finish(e);
+          return;
+        }
+
+        AtomicBoolean handedOff = new AtomicBoolean();
+        tier.whenComplete(
+            (ignored, e) -> {
+              if (e != null) {
+                finish(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+              } else if (!handedOff.compareAndSet(false, true)) {
+                // This loop has already returned
+                runTiersFrom(nextStart);
+              }
+            });
+        if (handedOff.compareAndSet(false, true) || tier.isCompletedExceptionally()) {
+          // The tier is still running, or has failed
+          return;
+        }
+        start = nextStart;
+      }
+      finish(null);
+    }
+
+    CompletableFuture<Void> runSequentially(int start, int end) {
+      return CompletableFuture.runAsync(
+          () -> {
+            EventControl control = new EventControl();
+            for (int i = start; i < end; i++) {
+              control.reset();
+              if (invoke(snapshot[i], control)) {
+                break;
+              }
+            }
+          },
+          executor);
+    }
+
+    CompletableFuture<Void> runConcurrently(int start, int end) {
+      CompletableFuture<?>[] tasks = new CompletableFuture<?>[end - start];
+      for (int i = start; i < end; i++) {
+        Subscription<E> subscription = snapshot[i];
+        tasks[i - start] =
+            CompletableFuture.runAsync(() -> invoke(subscription, new EventControl()), executor);
+      }
+      return CompletableFuture.allOf(tasks);
+    }
+
+    /**
+     * @return whether the listener has stopped propagation
+     */
+    boolean invoke(Subscription<E> subscription, EventControl control) {
+      if (subscription.filter != null && !subscription.filter.test(event)) {
+        return false;
+      }
+      if (!emitter.claim(subscription)) {
+        return false;
+      }
+
+      if (emitter.isMetricsEnabled()) {
+        emitter.invokeInstrumented(subscription, event, control);
+      } else {
+        subscription.listener.on(event, control);
+      }
+
+      if (control.markedForRemoval) {
+        emitter.removeByEmit(subscription);
+      }
+      if (control.shouldStop) {
+        stopped = true;
+      }
+      return control.shouldStop;
+    }
+
+    void finish(@Nullable Throwable error) {
+      emitter.republish();
+      pendingPermits.release();
+      if (error == null) {
+        result.complete(null);
+      } else {
+        result.completeExceptionally(error);
+      }
+    }
+  }
+}
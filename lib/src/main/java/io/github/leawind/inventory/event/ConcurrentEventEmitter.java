@@ -0,0 +1,249 @@
+package io.github.leawind.inventory.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A thread-safe {@link EventEmitter}.
+ *
+ * <p>Listeners may be subscribed and unsubscribed from any thread while other threads emit.
+ *
+ * <ul>
+ *   <li><strong>Emit</strong> never takes a lock. It reads the latest published snapshot through a
+ *       single volatile read and iterates it.
+ *   <li><strong>Registration</strong> ({@code on}, {@code once}, {@code off}, {@link #clear()}) is
+ *       serialized by an internal lock, and publishes a new snapshot atomically before returning.
+ *   <li><strong>One-time listeners</strong> are claimed with a CAS before invocation, so each is
+ *       invoked at most once even if several threads emit at the same time.
+ *   <li><strong>Removals from listeners</strong> ({@link EventControl#unsubscribe()}) take effect
+ *       immediately for all threads; the snapshot is republished if the lock is free, otherwise by
+ *       the next registration.
+ * </ul>
+ *
+ * <p>An emission that runs concurrently with a registration may or may not observe it. Listeners
+ * themselves may be invoked concurrently from different emitting threads.
+ *
+ * @param <E> The event type
+ */
+public class ConcurrentEventEmitter<E> extends EventEmitter<E> {
+  private static final VarHandle REMOVED;
+
+  static {
+    try {
+      REMOVED =
+          MethodHandles.lookup().findVarHandle(Subscription.class, "removed", boolean.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Subscriptions removed by emitting threads, waiting for bookkeeping under the lock */
+  private final ConcurrentLinkedQueue<Subscription<E>> removedByEmit =
+      new ConcurrentLinkedQueue<>();
+
+  private volatile DispatchTable<E> published = table();
+
+  /** Emissions run on many threads, each thread reuses its own control object */
+  private final ThreadLocal<EventControl> reusableControls =
+      ThreadLocal.withInitial(EventControl::new);
+
+  /** Creates a ConcurrentEventEmitter with a {@link ConcurrentHashMap} for key-based lookup. */
+  public ConcurrentEventEmitter() {
+    super(new ConcurrentHashMap<>());
+  }
+
+  /**
+   * Creates a ConcurrentEventEmitter whose listeners can subscribe to a single discriminant.
+   *
+   * @see EventEmitter#EventEmitter(Function)
+   */
+  public ConcurrentEventEmitter(Function<? super E, ?> discriminator) {
+    super(new ConcurrentHashMap<>(), discriminator);
+  }
+
+  @Override
+  public EventEmitter<E> clear() {
+    lock.lock();
+    try {
+      removedByEmit.clear();
+      super.clear();
+      published = table();
+    } finally {
+      lock.unlock();
+    }
+    return this;
+  }
+
+  /**
+   * Returns whether a listener with the given key exists.
+   *
+   * @param key the lookup key; always returns {@code false} if {@code null}
+   */
+  @Override
+  public boolean hasKey(@Nullable Object key) {
+    return key != null && super.hasKey(key);
+  }
+
+  @Override
+  public @Nullable Listener<E> getListener(@Nullable Object key) {
+    return key == null ? null : super.getListener(key);
+  }
+
+  @Override
+  protected EventEmitter<E> subscribe(Subscription<E> subscription) {
+    lock.lock();
+    try {
+      super.subscribe(subscription);
+      publish();
+    } finally {
+      lock.unlock();
+    }
+    return this;
+  }
+
+  @Override
+  public EventEmitter<E> off(Object key) {
+    lock.lock();
+    try {
+      super.off(key);
+      publish();
+    } finally {
+      lock.unlock();
+    }
+    return this;
+  }
+
+  @Override
+  public EventEmitter<E> off(Listener<E> listener) {
+    lock.lock();
+    try {
+      super.off(listener);
+      publish();
+    } finally {
+      lock.unlock();
+    }
+    return this;
+  }
+
+  @Override
+  public EventEmitter<E> setMetricsEnabled(boolean enabled) {
+    lock.lock();
+    try {
+      super.setMetricsEnabled(enabled);
+    } finally {
+      lock.unlock();
+    }
+    return this;
+  }
+
+  @Override
+  public List<ListenerMetrics.Snapshot> metricsSnapshot() {
+    lock.lock();
+    try {
+      return super.metricsSnapshot();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Emits an event asynchronously, sending listeners to the executor of the given dispatcher.
+   *
+   * @param event the event payload; may be {@code null}
+   * @param dispatcher decides how listeners are scheduled and how many emissions may be pending
+   * @return a future that completes once dispatch has finished
+   * @see AsyncEventDispatcher#dispatch(ConcurrentEventEmitter, Object)
+   */
+  public CompletableFuture<Void> emitAsync(@Nullable E event, AsyncEventDispatcher dispatcher) {
+    return dispatcher.dispatch(this, event);
+  }
+
+  /**
+   * Removes subscriptions whose key has been collected, then returns the latest published
+   * snapshot. Does not take the lock.
+   */
+  @Override
+  DispatchTable<E> dispatchTable() {
+    Subscription<E> collected;
+    while ((collected = pollCollectedKey()) != null) {
+      removeByEmit(collected);
+    }
+    return published;
+  }
+
+  /**
+   * Decides whether the subscription should be invoked by the calling thread. One-time
+   * subscriptions are removed by this call, so that only one thread can claim them.
+   */
+  @Override
+  boolean claim(Subscription<E> subscription) {
+    if (subscription.once) {
+      return removeByEmit(subscription);
+    }
+    return !(boolean) REMOVED.getAcquire(subscription);
+  }
+
+  /**
+   * Republishes the snapshot if emitting threads have removed subscriptions and the lock is free.
+   */
+  @Override
+  void republish() {
+    if (!removedByEmit.isEmpty() && lock.tryLock()) {
+      try {
+        publish();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  EventControl reusableControl() {
+    return reusableControls.get();
+  }
+
+  @Override
+  boolean isRemoved(Subscription<E> subscription) {
+    return (boolean) REMOVED.getAcquire(subscription);
+  }
+
+  /** Must be called with the lock held. */
+  @Override
+  protected void markRemoved(Subscription<E> subscription) {
+    if (REMOVED.compareAndSet(subscription, false, true)) {
+      afterRemoved(subscription);
+    }
+  }
+
+  /**
+   * Marks the subscription as removed without taking the lock.
+   *
+   * @return whether this call removed it
+   */
+  @Override
+  boolean removeByEmit(Subscription<E> subscription) {
+    if (REMOVED.compareAndSet(subscription, false, true)) {
+      removedByEmit.add(subscription);
+      return true;
+    }
+    return false;
+  }
+
+  /** Must be called with the lock held. */
+  private void publish() {
+    Subscription<E> subscription;
+    while ((subscription = removedByEmit.poll()) != null) {
+      afterRemoved(subscription);
+    }
+    published = table();
+  }
+}
@@ -0,0 +1,251 @@
+package io.github.leawind.inventory.event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Conflates events that arrive faster than listeners need them, and delivers only the latest one.
+ *
+ * <p>Emitted events are kept pending until the next flush. A pending event with the same
+ * {@linkplain Builder#keyedBy key} as a new one is merged with it, by default keeping the newer
+ * event. A flush delivers the pending events to {@link #listeners()} with {@link
+ * EventEmitter#emitAll}, in the order their keys were first emitted since the last flush.
+ *
+ * <p>Like {@link io.github.leawind.inventory.throttled.ThrottledAction#urge()}, the first emit
+ * after a flush schedules the next one, and emits in between only update the pending events:
+ *
+ * <ul>
+ *   <li>With {@link Builder#executor}, a flush is submitted to the executor, so listeners run at
+ *       most once per executor turn.
+ *   <li>With {@link Builder#window}, flushes run on a scheduler, at least one window apart.
+ * </ul>
+ *
+ * <p>{@code emit} may be called from any thread. It runs listeners only if the executor runs tasks
+ * on the calling thread, e.g. a direct executor or {@link
+ * java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy}; the flush then runs after the event
+ * is pending, outside of any lock of this emitter. Flushes never overlap: an emit or flush from a
+ * listener during a flush only leaves its events pending, and the running flush delivers them
+ * before it returns.
+ *
+ * @param <E> The event type
+ */
+public class ConflatingEventEmitter<E> {
+  private static final Object NO_KEY = new Object();
+
+  private final EventEmitter<E> listeners;
+  private final Function<? super E, ?> keyFn;
+  private final BinaryOperator<E> merger;
+
+  private final @Nullable Executor executor;
+  private final @Nullable ScheduledExecutorService scheduler;
+  private final long windowNanos;
+
+  private final Runnable flushTask = this::flush;
+
+  /** Serializes flushes */
+  private final Object flushLock = new Object();
+
+  /** Whether a flush is running. Guarded by flushLock, so only its own thread can see it set */
+  private boolean flushing = false;
+
+  // Guarded by this
+  private Map<Object, E> pending = new LinkedHashMap<>();
+  private Map<Object, E> spare = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+  private long lastFlushNanos;
+  private long conflatedCount = 0;
+
+  private ConflatingEventEmitter(
+      EventEmitter<E> listeners,
+      Function<? super E, ?> keyFn,
+      BinaryOperator<E> merger,
+      @Nullable Executor executor,
+      @Nullable ScheduledExecutorService scheduler,
+      long windowNanos) {
+    this.listeners = listeners;
+    this.keyFn = keyFn;
+    this.merger = merger;
+    this.executor = executor;
+    this.scheduler = scheduler;
+    this.windowNanos = windowNanos;
+    this.lastFlushNanos = System.nanoTime() - windowNanos;
+  }
+
+  /** Returns the emitter whose listeners receive the conflated events. */
+  public EventEmitter<E> listeners() {
+    return listeners;
+  }
+
+  /**
+   * Adds an event to the pending events, merging it with the pending event of the same key, and
+   * schedules a flush if none is scheduled yet.
+   *
+   * @param event the event payload; may be {@code null} if the key function accepts it
+   * @throws RejectedExecutionException if the flush cannot be scheduled
+   */
+  public void emit(@Nullable E event) {
+    Object key = keyFn.apply(event);
+    long delayNanos;
+    synchronized (this) {
+      if (pending.containsKey(key)) {
+        pending.put(key, merger.apply(pending.get(key), event));
+        conflatedCount++;
+      } else {
+        pending.put(key, event);
+      }
+
+      if (flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+      delayNanos = windowNanos - (System.nanoTime() - lastFlushNanos);
+    }
+
+    // Outside the monitor, as the executor may run the flush right away on this thread
+    try {
+      scheduleFlush(delayNanos);
+    } catch (RejectedExecutionException e) {
+      synchronized (this) {
+        flushScheduled = false;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Delivers the pending events now, on the calling thread. Waits if a flush is already running.
+   *
+   * <p>If called by a listener during a flush, returns at once, and the running flush delivers the
+   * pending events after its current batch.
+   *
+   * <p>If a listener throws, the exception propagates and the remaining events of this flush are
+   * dropped. Events emitted by listeners of this flush stay pending until the next emit or flush.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      if (flushing) {
+        return;
+      }
+      flushing = true;
+      boolean completed = false;
+      try {
+        while (flushBatch()) {}
+        completed = true;
+      } finally {
+        flushing = false;
+        if (!completed) {
+          // A flush scheduled by a listener of this flush has returned without delivering
+          synchronized (this) {
+            flushScheduled = false;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return whether a batch has been delivered
+   */
+  private boolean flushBatch() {
+    Map<Object, E> batch;
+    synchronized (this) {
+      flushScheduled = false;
+      if (pending.isEmpty()) {
+        return false;
+      }
+      batch = pending;
+      pending = spare;
+      spare = batch;
+      lastFlushNanos = System.nanoTime();
+    }
+    try {
+      listeners.emitAll(batch.values());
+    } finally {
+      batch.clear();
+    }
+    return true;
+  }
+
+  /** Returns the number of events waiting for the next flush. */
+  public synchronized int pendingCount() {
+    return pending.size();
+  }
+
+  /** Returns how many events have been merged into a pending event instead of being delivered. */
+  public synchronized long conflatedCount() {
+    return conflatedCount;
+  }
+
+  /** Must not be called while holding the monitor of this, see {@link #flush()}. */
+  private void scheduleFlush(long delayNanos) {
+    if (executor != null) {
+      executor.execute(flushTask);
+    } else {
+      assert scheduler != null;
+      scheduler.schedule(flushTask, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public static class Builder<E> {
+    private EventEmitter<E> listeners = new ConcurrentEventEmitter<>();
+    private Function<? super E, ?> keyFn = e -> NO_KEY;
+    private BinaryOperator<E> merger = (older, newer) -> newer;
+    private @Nullable Executor executor;
+    private @Nullable ScheduledExecutorService scheduler;
+    private long windowNanos;
+
+    /** Uses an existing emitter to deliver the conflated events */
+    public Builder<E> listeners(EventEmitter<E> listeners) {
+      this.listeners = listeners;
+      return this;
+    }
+
+    /**
+     * Events with equal keys are merged. By default all events share the same key, so only one
+     * event is pending at a time.
+     */
+    public Builder<E> keyedBy(Function<? super E, ?> keyFn) {
+      this.keyFn = keyFn;
+      return this;
+    }
+
+    /** Merges a pending event with a newer one of the same key. Defaults to keeping the newer. */
+    public Builder<E> merge(BinaryOperator<E> merger) {
+      this.merger = merger;
+      return this;
+    }
+
+    /** Flushes on the given executor, once per executor turn */
+    public Builder<E> executor(Executor executor) {
+      this.executor = executor;
+      this.scheduler = null;
+      return this;
+    }
+
+    /** Flushes on the given scheduler, at least {@code window} apart */
+    public Builder<E> window(long window, TimeUnit unit, ScheduledExecutorService scheduler) {
+      if (window < 0) {
+        throw new IllegalArgumentException("window must be >= 0");
+      }
+      this.windowNanos = unit.toNanos(window);
+      this.scheduler = scheduler;
+      this.executor = null;
+      return this;
+    }
+
+    public ConflatingEventEmitter<E> build() {
+      if (executor == null && scheduler == null) {
+        throw new IllegalStateException("Executor or window must be provided");
+      }
+      return new ConflatingEventEmitter<>(
+          listeners, keyFn, merger, executor, scheduler, windowNanos);
+    }
+  }
+}
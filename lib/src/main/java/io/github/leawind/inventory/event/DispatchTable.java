@@ -0,0 +1,105 @@
+package io.github.leawind.inventory.event;
+
+import io.github.leawind.inventory.event.EventEmitter.Subscription;
+import io.github.leawind.inventory.type.UnsafeTypeUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable dispatch snapshot of an {@link EventEmitter}.
+ *
+ * <p>Besides the array of all subscriptions, it holds one precomputed array per discriminant that
+ * some subscription {@linkplain EventEmitter#onMatch matches}, so that an emission only walks the
+ * subscriptions that can match its event. Every array is in dispatch order.
+ *
+ * @param <E> The event type
+ */
+final class DispatchTable<E> {
+  @SuppressWarnings("rawtypes")
+  private static final Subscription[] EMPTY = new Subscription[0];
+
+  /** All subscriptions */
+  final Subscription<E>[] all;
+
+  /** null if no subscription has a discriminant */
+  private final @Nullable Function<? super E, ?> discriminator;
+
+  /** Subscriptions without a discriminant */
+  private final Subscription<E>[] undiscriminated;
+
+  /** Subscriptions matching each discriminant, including those without a discriminant */
+  private final Map<Object, Subscription<E>[]> byDiscriminant;
+
+  private DispatchTable(
+      Subscription<E>[] all,
+      @Nullable Function<? super E, ?> discriminator,
+      Subscription<E>[] undiscriminated,
+      Map<Object, Subscription<E>[]> byDiscriminant) {
+    this.all = all;
+    this.discriminator = discriminator;
+    this.undiscriminated = undiscriminated;
+    this.byDiscriminant = byDiscriminant;
+  }
+
+  static <E> DispatchTable<E> empty() {
+    Subscription<E>[] empty = UnsafeTypeUtils.forceCast(EMPTY);
+    return new DispatchTable<>(empty, null, empty, Map.of());
+  }
+
+  /**
+   * @param all all subscriptions in dispatch order
+   * @param discriminator the discriminator of the emitter, or null if it has none
+   */
+  static <E> DispatchTable<E> build(
+      Subscription<E>[] all, @Nullable Function<? super E, ?> discriminator) {
+    if (discriminator == null) {
+      return new DispatchTable<>(all, null, all, Map.of());
+    }
+
+    List<Subscription<E>> undiscriminated = new ArrayList<>();
+    Map<Object, List<Subscription<E>>> groups = new HashMap<>();
+    for (Subscription<E> subscription : all) {
+      if (subscription.discriminant == Subscription.ANY) {
+        undiscriminated.add(subscription);
+        for (List<Subscription<E>> group : groups.values()) {
+          group.add(subscription);
+        }
+      } else {
+        // A new group starts with the undiscriminated subscriptions before it
+        groups
+            .computeIfAbsent(subscription.discriminant, d -> new ArrayList<>(undiscriminated))
+            .add(subscription);
+      }
+    }
+
+    if (groups.isEmpty()) {
+      return new DispatchTable<>(all, null, all, Map.of());
+    }
+    Map<Object, Subscription<E>[]> byDiscriminant = new HashMap<>();
+    groups.forEach((d, group) -> byDiscriminant.put(d, toArray(group)));
+    return new DispatchTable<>(all, discriminator, toArray(undiscriminated), byDiscriminant);
+  }
+
+  /**
+   * Returns the subscriptions whose discriminant can match the event. A null event is not passed
+   * to the discriminator, and only matches subscriptions without a discriminant.
+   */
+  Subscription<E>[] select(@Nullable E event) {
+    if (discriminator == null) {
+      return all;
+    }
+    if (event == null) {
+      return undiscriminated;
+    }
+    Subscription<E>[] group = byDiscriminant.get(discriminator.apply(event));
+    return group == null ? undiscriminated : group;
+  }
+
+  private static <E> Subscription<E>[] toArray(List<Subscription<E>> list) {
+    return UnsafeTypeUtils.forceCast(list.toArray(EMPTY));
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.leawind.inventory.event;
+
+import io.github.leawind.inventory.type.UnsafeTypeUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Routes events to a channel per event class.
+ *
+ * <p>Each channel is an {@link EventEmitter}, so listeners keep its priority, once and key
+ * semantics:
+ *
+ * <pre>{@code
+ * EventBus bus = new EventBus();
+ * bus.channel(PlayerJoinEvent.class).on(e -> greet(e.player()), 10);
+ * bus.channel(Event.class).on(e -> log(e));
+ * bus.publish(new PlayerJoinEvent(player));
+ * }</pre>
+ *
+ * <p>An event published with {@link #publish(Object)} is delivered to the channel of its runtime
+ * class, and to the channels of all its superclasses and interfaces. Channels are dispatched from
+ * the most specific type to the least specific one: each class of the hierarchy first, then the
+ * interfaces it implements, then its superclass. Within a channel, listeners run in priority order.
+ * {@link EventEmitter.EventControl#stop()} stops the event from reaching any further listener,
+ * including listeners of less specific channels.
+ *
+ * <p>The list of channels to dispatch is resolved once per event class and cached until a new
+ * channel is created. Publishing an event for which no channel exists costs a cache lookup.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class EventBus {
+  @SuppressWarnings("rawtypes")
+  private static final EventEmitter[] NO_CHANNELS = new EventEmitter[0];
+
+  private final Supplier<? extends Map<Object, ?>> keyMapFactory;
+
+  /** Channels by exact event type */
+  private final Map<Class<?>, EventEmitter<Object>> channels = new HashMap<>();
+
+  /** Channels to dispatch for each published event type, most specific first */
+  private final Map<Class<?>, EventEmitter<Object>[]> dispatchTable = new HashMap<>();
+
+  /** The event type last published, so that publishing the same type repeatedly skips the lookup */
+  private @Nullable Class<?> lastType = null;
+
+  private EventEmitter<Object>[] lastTargets = UnsafeTypeUtils.forceCast(NO_CHANNELS);
+
+  /** Creates an EventBus whose channels use a {@link HashMap} for key-based lookup. */
+  public EventBus() {
+    this(HashMap::new);
+  }
+
+  /**
+   * Creates an EventBus whose channels use maps from the given factory for key-based lookup.
+   *
+   * @param keyMapFactory creates an empty map for each channel, see {@link
+   *     EventEmitter#EventEmitter(Map)}
+   */
+  public EventBus(Supplier<? extends Map<Object, ?>> keyMapFactory) {
+    this.keyMapFactory = keyMapFactory;
+  }
+
+  /**
+   * Returns the channel of the given event type, creating it if it does not exist yet.
+   *
+   * <p>Listeners subscribed to it receive events of the given type and of all its subtypes.
+   *
+   * @param type the exact event type of the channel
+   */
+  public <E> EventEmitter<E> channel(Class<E> type) {
+    EventEmitter<Object> channel = channels.get(type);
+    if (channel == null) {
+      channel = new EventEmitter<>(keyMapFactory.get());
+      channels.put(type, channel);
+      invalidateDispatchTable();
+    }
+    return UnsafeTypeUtils.forceCast(channel);
+  }
+
+  /**
+   * Returns whether a channel exists for exactly the given type.
+   *
+   * @param type the exact event type
+   */
+  public boolean hasChannel(Class<?> type) {
+    return channels.containsKey(type);
+  }
+
+  /**
+   * Publishes an event to the channels of its runtime type and all its supertypes.
+   *
+   * @param event the event payload; must not be {@code null}
+   */
+  public void publish(Object event) {
+    EventEmitter<Object>[] targets = dispatchTargets(event.getClass());
+    for (EventEmitter<Object> channel : targets) {
+      if (channel.dispatch(event)) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Removes the listeners associated with the given key from every channel.
+   *
+   * @param key the key of the listeners to remove
+   * @return this bus (for chaining)
+   */
+  public EventBus off(Object key) {
+    for (EventEmitter<Object> channel : channels.values()) {
+      channel.off(key);
+    }
+    return this;
+  }
+
+  /**
+   * Removes all listeners from all channels. Channels themselves are kept.
+   *
+   * @return this bus (for chaining)
+   */
+  public EventBus clear() {
+    for (EventEmitter<Object> channel : channels.values()) {
+      channel.clear();
+    }
+    return this;
+  }
+
+  private EventEmitter<Object>[] dispatchTargets(Class<?> type) {
+    if (type == lastType) {
+      return lastTargets;
+    }
+    EventEmitter<Object>[] targets = dispatchTable.get(type);
+    if (targets == null) {
+      targets = resolveTargets(type);
+      dispatchTable.put(type, targets);
+    }
+    lastType = type;
+    lastTargets = targets;
+    return targets;
+  }
+
+  private EventEmitter<Object>[] resolveTargets(Class<?> type) {
+    List<EventEmitter<Object>> targets = new ArrayList<>();
+    for (Class<?> supertype : linearize(type)) {
+      EventEmitter<Object> channel = channels.get(supertype);
+      if (channel != null) {
+        targets.add(channel);
+      }
+    }
+    return UnsafeTypeUtils.forceCast(targets.toArray(NO_CHANNELS));
+  }
+
+  private void invalidateDispatchTable() {
+    dispatchTable.clear();
+    lastType = null;
+    lastTargets = UnsafeTypeUtils.forceCast(NO_CHANNELS);
+  }
+
+  /**
+   * Returns the type and all its supertypes, most specific first: each class of the hierarchy, then
+   * the interfaces it implements, then its superclass.
+   */
+  private static Set<Class<?>> linearize(Class<?> type) {
+    Set<Class<?>> order = new LinkedHashSet<>();
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      order.add(c);
+      addInterfaces(c, order);
+    }
+    return order;
+  }
+
+  private static void addInterfaces(Class<?> type, Set<Class<?>> order) {
+    for (Class<?> i : type.getInterfaces()) {
+      if (order.add(i)) {
+        addInterfaces(i, order);
+      }
+    }
+  }
+}
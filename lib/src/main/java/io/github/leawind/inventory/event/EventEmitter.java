@@ -1,12 +1,18 @@
 package io.github.leawind.inventory.event;
 
 import io.github.leawind.inventory.type.UnsafeTypeUtils;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -18,8 +24,17 @@ import org.jspecify.annotations.Nullable;
  *
  * <p><strong>Memory management note:</strong> When a non-null key is provided, it is held via a
  * {@link WeakReference}. This allows the key object to be garbage collected when no longer strongly
- * reachable elsewhere. Once a key is collected, its associated subscription is automatically
- * removed during the next {@link #emit()} call.
+ * reachable elsewhere. The weak reference is registered with a {@link ReferenceQueue}; once the
+ * key is collected and enqueued, its associated subscription is automatically removed during the
+ * next {@link #emit()} call. Note that the key map itself must hold keys weakly (e.g. {@link
+ * java.util.WeakHashMap}) for a key to become collectable at all.
+ *
+ * <p><strong>Dispatch snapshot:</strong> {@link #emit} iterates an immutable, priority-sorted array
+ * snapshot of the subscriptions. Changes made by {@code on}, {@code once}, {@code off} or {@link
+ * EventControl#unsubscribe()} are collected and published as a new snapshot before the next
+ * emission, so an emission in steady state neither mutates the subscription list nor allocates a
+ * new snapshot. Listeners added during an emission do not receive the event being dispatched;
+ * listeners removed during an emission are not invoked anymore.
  *
  * <p><strong>Key equality:</strong> If using a custom map with reference-based equality (e.g.,
  * Guava's {@code MapMaker().weakKeys()}), ensure that {@code on(key, ...)} and {@code off(key)} use
@@ -30,8 +45,32 @@ import org.jspecify.annotations.Nullable;
 public class EventEmitter<E> {
   protected static final int DEFAULT_PRIORITY = 0;
 
-  /** Sorted by priority in descending order */
-  protected final List<Subscription<E>> subscriptions = new ArrayList<>();
+  /** All subscriptions in dispatch order. */
+  final SubscriptionIndex<E> index = new SubscriptionIndex<>();
+
+  /**
+   * Read-only view of all subscriptions in dispatch order. Changes through {@code on}, {@code
+   * once} and {@code off} are visible at once.
+   */
+  protected final List<Subscription<E>> subscriptions = index.asList();
+
+  /** The snapshot currently used by {@link #emit}. Never mutated once published. */
+  private DispatchTable<E> table = DispatchTable.empty();
+
+  /** Whether {@link #index} has changed since {@link #table} was built */
+  private boolean snapshotStale = false;
+
+  /** Maps an event to the discriminant matched by {@link #onMatch}; null if not supported */
+  private final @Nullable Function<? super E, ?> discriminator;
+
+  /** See {@link #acquireControl()} */
+  private final EventControl reusableControl = new EventControl();
+
+  /** See {@link #setMetricsEnabled(boolean)} */
+  private volatile boolean metricsEnabled = false;
+
+  /** Weak keys of subscriptions are enqueued here once collected */
+  private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<>();
 
   /**
    * Lookup map from key to subscription.
@@ -47,6 +86,19 @@ public class EventEmitter<E> {
     this(new HashMap<>());
   }
 
+  /**
+   * Creates an EventEmitter whose listeners can subscribe to a single discriminant with {@link
+   * #onMatch}.
+   *
+   * <p>The discriminator is never called with a null event. A null event only reaches listeners
+   * without discriminant.
+   *
+   * @param discriminator maps a non-null event to its discriminant, e.g. {@code Event::kind}
+   */
+  public EventEmitter(Function<? super E, ?> discriminator) {
+    this(new HashMap<>(), discriminator);
+  }
+
   /**
    * Creates an EventEmitter with a custom map for key-based subscription lookup.
    *
@@ -74,10 +126,22 @@ public class EventEmitter<E> {
    * @param subscriptionsMap the map instance to use for key → subscription lookup
    */
   public EventEmitter(Map<Object, ?> subscriptionsMap) {
+    this(subscriptionsMap, null);
+  }
+
+  /**
+   * Creates an EventEmitter with a custom map for key-based lookup and a discriminator.
+   *
+   * @param subscriptionsMap see {@link #EventEmitter(Map)}
+   * @param discriminator see {@link #EventEmitter(Function)}; may be {@code null}
+   */
+  public EventEmitter(
+      Map<Object, ?> subscriptionsMap, @Nullable Function<? super E, ?> discriminator) {
     if (!subscriptionsMap.isEmpty()) {
       throw new IllegalArgumentException("subscriptionsMap must be empty");
     }
     this.subscriptionsByKey = UnsafeTypeUtils.forceCast(subscriptionsMap);
+    this.discriminator = discriminator;
   }
 
   /**
@@ -86,8 +150,13 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> clear() {
-    subscriptions.clear();
+    // Mark as removed so that an emission in progress stops invoking them
+    for (Subscription<E> s = index.first(); s != null; s = s.next) {
+      s.removed = true;
+    }
+    index.clear();
     subscriptionsByKey.clear();
+    snapshotStale = true;
     return this;
   }
 
@@ -140,7 +209,7 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> once(Listener<E> listener) {
-    return subscribe(new Subscription<>(null, listener, DEFAULT_PRIORITY, true));
+    return subscribe(new Subscription<>(listener, DEFAULT_PRIORITY, true));
   }
 
   /**
@@ -170,7 +239,7 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> once(Object key, Listener<E> listener) {
-    return subscribe(new Subscription<>(key, listener, DEFAULT_PRIORITY, true));
+    return once(key, listener, DEFAULT_PRIORITY);
   }
 
   /**
@@ -203,7 +272,7 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> once(Object key, Listener<E> listener, int priority) {
-    return subscribe(new Subscription<>(key, listener, priority, true));
+    return subscribeKeyed(key, listener, priority, true);
   }
 
   /**
@@ -260,7 +329,7 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> on(Listener<E> listener, int priority) {
-    return subscribe(new Subscription<>(null, listener, priority, false));
+    return subscribe(new Subscription<>(listener, priority, false));
   }
 
   /**
@@ -332,7 +401,126 @@ public class EventEmitter<E> {
     if (key == null) {
       throw new IllegalArgumentException("Listener key must not be null.");
     }
-    return subscribe(new Subscription<>(key, listener, priority, false));
+    return subscribeKeyed(key, listener, priority, false);
+  }
+
+  /**
+   * Adds a persistent keyless listener that only receives events whose discriminant equals the
+   * given one.
+   *
+   * <p>Subscriptions are grouped by discriminant when the dispatch snapshot is built, so an
+   * emission only walks the listeners of its event's discriminant, together with listeners without
+   * discriminant, in priority order. Listeners of other discriminants cost nothing.
+   *
+   * @param discriminant compared with {@link Object#equals} to the discriminant of each event
+   * @param priority higher value executes first
+   * @return this emitter (for chaining)
+   * @throws IllegalStateException if this emitter has no discriminator
+   * @see #EventEmitter(Function)
+   */
+  public EventEmitter<E> onMatch(
+      @Nullable Object discriminant, Listener.Basic<E> listener, int priority) {
+    return onMatch(discriminant, (Listener<E>) listener, priority);
+  }
+
+  /**
+   * Adds a persistent keyless listener that only receives events whose discriminant equals the
+   * given one.
+   *
+   * @see #onMatch(Object, Listener.Basic, int)
+   */
+  public EventEmitter<E> onMatch(
+      @Nullable Object discriminant, Listener<E> listener, int priority) {
+    return subscribe(withDiscriminant(new Subscription<>(listener, priority, false), discriminant));
+  }
+
+  /**
+   * Sets a persistent listener identified by {@code key} that only receives events whose
+   * discriminant equals the given one. Replaces any existing listener with the same key.
+   *
+   * @see #onMatch(Object, Listener.Basic, int)
+   */
+  public EventEmitter<E> onMatch(
+      Object key, @Nullable Object discriminant, Listener<E> listener, int priority) {
+    if (key == null) {
+      throw new IllegalArgumentException("Listener key must not be null.");
+    }
+    try {
+      return subscribe(
+          withDiscriminant(
+              new Subscription<>(key, collectedKeys, listener, priority, false), discriminant));
+    } finally {
+      Reference.reachabilityFence(key);
+    }
+  }
+
+  /**
+   * Adds a persistent keyless listener that only receives events accepted by {@code filter}.
+   *
+   * <p>The filter is tested by the emitter before invoking the listener. A one-time listener is not
+   * consumed by events that the filter rejects. Prefer {@link #onMatch} where possible, it skips
+   * non-matching listeners without testing them one by one.
+   *
+   * @param priority higher value executes first
+   * @return this emitter (for chaining)
+   */
+  public EventEmitter<E> onIf(
+      Predicate<? super E> filter, Listener.Basic<E> listener, int priority) {
+    return onIf(filter, (Listener<E>) listener, priority);
+  }
+
+  /**
+   * Adds a persistent keyless listener that only receives events accepted by {@code filter}.
+   *
+   * @see #onIf(Predicate, Listener.Basic, int)
+   */
+  public EventEmitter<E> onIf(Predicate<? super E> filter, Listener<E> listener, int priority) {
+    Subscription<E> subscription = new Subscription<>(listener, priority, false);
+    subscription.filter = filter;
+    return subscribe(subscription);
+  }
+
+  /**
+   * Sets a persistent listener identified by {@code key} that only receives events accepted by
+   * {@code filter}. Replaces any existing listener with the same key.
+   *
+   * @see #onIf(Predicate, Listener.Basic, int)
+   */
+  public EventEmitter<E> onIf(
+      Object key, Predicate<? super E> filter, Listener<E> listener, int priority) {
+    if (key == null) {
+      throw new IllegalArgumentException("Listener key must not be null.");
+    }
+    try {
+      Subscription<E> subscription =
+          new Subscription<>(key, collectedKeys, listener, priority, false);
+      subscription.filter = filter;
+      return subscribe(subscription);
+    } finally {
+      Reference.reachabilityFence(key);
+    }
+  }
+
+  private Subscription<E> withDiscriminant(
+      Subscription<E> subscription, @Nullable Object discriminant) {
+    if (discriminator == null) {
+      throw new IllegalStateException("This emitter has no discriminator");
+    }
+    subscription.discriminant = discriminant;
+    return subscription;
+  }
+
+  /**
+   * The subscription holds its key weakly, so the key must be kept strongly reachable until {@link
+   * #subscribe} has stored it in {@link #subscriptionsByKey}.
+   */
+  private EventEmitter<E> subscribeKeyed(
+      Object key, Listener<E> listener, int priority, boolean once) {
+    try {
+      return subscribe(new Subscription<>(key, collectedKeys, listener, priority, once));
+    } finally {
+      Reference.reachabilityFence(key);
+    }
   }
 
   protected EventEmitter<E> subscribe(Subscription<E> subscription) {
@@ -348,15 +536,11 @@ public class EventEmitter<E> {
       subscriptionsByKey.put(key, subscription);
     }
 
-    // Insert it at the correct position in the list
-    ListIterator<Subscription<E>> it = subscriptions.listIterator();
-    while (it.hasNext()) {
-      if (it.next().priority < subscription.priority) {
-        it.previous();
-        break;
-      }
+    if (metricsEnabled) {
+      subscription.metrics = new ListenerMetrics();
     }
-    it.add(subscription);
+    index.add(subscription);
+    snapshotStale = true;
 
     return this;
   }
@@ -370,7 +554,7 @@ public class EventEmitter<E> {
   public EventEmitter<E> off(Object key) {
     Subscription<E> subscription = this.subscriptionsByKey.remove(key);
     if (subscription != null) {
-      subscriptions.remove(subscription);
+      markRemoved(subscription);
     }
     return this;
   }
@@ -383,17 +567,9 @@ public class EventEmitter<E> {
    * @return this emitter (for chaining)
    */
   public EventEmitter<E> off(Listener<E> listener) {
-    ListIterator<Subscription<E>> it = subscriptions.listIterator();
-    while (it.hasNext()) {
-      Subscription<E> subscription = it.next();
-      if (subscription.listener == listener) {
-        it.remove();
-        Object key = subscription.getKey();
-        if (key != null) {
-          subscriptionsByKey.remove(key);
-        }
-        break;
-      }
+    Subscription<E> subscription = index.firstLive(listener);
+    if (subscription != null) {
+      markRemoved(subscription);
     }
     return this;
   }
@@ -408,52 +584,423 @@ public class EventEmitter<E> {
    * removal (via {@link EventControl#unsubscribe()}) are removed after execution. Propagation stops
    * if {@link EventControl#stop()} is called.
    *
-   * <p>Subscriptions whose weak key has been garbage collected are automatically removed before
-   * dispatch begins.
+   * <p>Subscriptions whose weak key has been garbage collected are removed before dispatch begins.
    *
    * @param event the event payload; may be {@code null}
    */
   public void emit(@Nullable E event) {
-    // Clean up subscriptions with collected keys before dispatch
-    cleanupDeadKeySubscriptions();
+    dispatch(event);
+  }
 
-    ListIterator<Subscription<E>> it = subscriptions.listIterator();
-    EventControl control = new EventControl();
+  /**
+   * Implementation of {@link #emit(Object)}.
+   *
+   * @return whether a listener has stopped propagation
+   */
+  boolean dispatch(@Nullable E event) {
+    Subscription<E>[] snapshot = dispatchTable().select(event);
+    EventControl control = acquireControl();
+    boolean instrumented = metricsEnabled;
+    boolean stopped = false;
+
+    try {
+      for (Subscription<E> subscription : snapshot) {
+        if (subscription.filter != null && !subscription.filter.test(event)) {
+          continue;
+        }
+        if (!claim(subscription)) {
+          continue;
+        }
 
-    while (it.hasNext()) {
-      Subscription<E> subscription = it.next();
+        control.reset();
+
+        if (instrumented) {
+          invokeInstrumented(subscription, event, control);
+        } else {
+          subscription.listener.on(event, control);
+        }
 
-      // Skip if key was collected between cleanup and now (defensive)
-      if (subscription.keyRef != null && subscription.getKey() == null) {
-        it.remove();
-        continue;
+        if (control.markedForRemoval) {
+          removeByEmit(subscription);
+        }
+        if (control.shouldStop) {
+          stopped = true;
+          break;
+        }
       }
+    } finally {
+      control.inUse = false;
+    }
 
-      control.reset();
+    republish();
+    return stopped;
+  }
+
+  /**
+   * Emits a batch of events, walking the listeners once in descending priority order.
+   *
+   * <p>Listeners implementing {@link Listener.Batch} receive the whole batch in a single call.
+   * Other listeners keep per-event semantics: they are invoked once for each event, in iteration
+   * order, before the next listener is invoked.
+   *
+   * <ul>
+   *   <li>{@link EventControl#stop()} called by a per-event listener only stops that event from
+   *       reaching lower-priority listeners. Called by a batch listener, it stops the whole batch.
+   *   <li>{@link EventControl#unsubscribe()} and one-time subscriptions stop the listener from
+   *       receiving the remaining events of the batch.
+   * </ul>
+   *
+   * @param events the event payloads; elements may be {@code null}
+   */
+  public void emitAll(Collection<? extends E> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+
+    Subscription<E>[] snapshot = dispatchTable().all;
+    EventControl control = acquireControl();
+    boolean instrumented = metricsEnabled;
+
+    Object[] batch = events.toArray();
+    boolean[] stopped = new boolean[batch.length];
+    int liveCount = batch.length;
+    // The events not stopped yet, passed to batch listeners. null if it needs to be rebuilt.
+    @Nullable Collection<? extends E> liveEvents = events;
+
+    try {
+      for (Subscription<E> subscription : snapshot) {
+        boolean conditional = subscription.isConditional();
+        if (conditional && !matchesAny(subscription, batch, stopped)) {
+          continue;
+        }
+        if (!claim(subscription)) {
+          continue;
+        }
+
+        if (subscription.listener instanceof Listener.Batch<E> batchListener) {
+          Collection<? extends E> input;
+          if (conditional) {
+            input = collectMatching(subscription, batch, stopped);
+          } else {
+            if (liveEvents == null) {
+              liveEvents = collectLive(batch, stopped, liveCount);
+            }
+            input = liveEvents;
+          }
+          control.reset();
+
+          if (instrumented) {
+            invokeInstrumented(subscription, batchListener, input, control);
+          } else {
+            batchListener.onBatch(input, control);
+          }
+
+          if (control.markedForRemoval) {
+            removeByEmit(subscription);
+          }
+          if (control.shouldStop) {
+            break;
+          }
+          continue;
+        }
 
-      if (subscription.once) {
-        control.unsubscribe();
+        for (int i = 0; i < batch.length; i++) {
+          if (stopped[i]) {
+            continue;
+          }
+          E event = UnsafeTypeUtils.forceCast(batch[i]);
+          if (conditional && !matches(subscription, event)) {
+            continue;
+          }
+          control.reset();
+
+          if (instrumented) {
+            invokeInstrumented(subscription, event, control);
+          } else {
+            subscription.listener.on(event, control);
+          }
+
+          if (control.shouldStop) {
+            stopped[i] = true;
+            liveCount--;
+            liveEvents = null;
+          }
+          if (control.markedForRemoval) {
+            removeByEmit(subscription);
+          }
+          // Also covers one-time subscriptions, they are removed when claimed
+          if (isRemoved(subscription)) {
+            break;
+          }
+        }
+
+        if (liveCount == 0) {
+          break;
+        }
       }
+    } finally {
+      control.inUse = false;
+    }
 
-      subscription.listener.on(event, control);
+    republish();
+  }
+
+  /** Returns whether the discriminant and filter of the subscription accept the event. */
+  private boolean matches(Subscription<E> subscription, @Nullable E event) {
+    if (subscription.discriminant != Subscription.ANY) {
+      assert discriminator != null;
+      // Like DispatchTable.select, a null event only matches subscriptions without discriminant
+      if (event == null
+          || !Objects.equals(subscription.discriminant, discriminator.apply(event))) {
+        return false;
+      }
+    }
+    return subscription.filter == null || subscription.filter.test(event);
+  }
 
-      if (control.markedForRemoval) {
-        it.remove();
+  private boolean matchesAny(Subscription<E> subscription, Object[] batch, boolean[] stopped) {
+    for (int i = 0; i < batch.length; i++) {
+      if (!stopped[i] && matches(subscription, UnsafeTypeUtils.forceCast(batch[i]))) {
+        return true;
       }
-      if (control.shouldStop) {
-        break;
+    }
+    return false;
+  }
+
+  private List<E> collectMatching(Subscription<E> subscription, Object[] batch, boolean[] stopped) {
+    List<E> matching = new ArrayList<>();
+    for (int i = 0; i < batch.length; i++) {
+      E event = UnsafeTypeUtils.forceCast(batch[i]);
+      if (!stopped[i] && matches(subscription, event)) {
+        matching.add(event);
       }
     }
+    return matching;
   }
 
+  private static <E> List<E> collectLive(Object[] batch, boolean[] stopped, int liveCount) {
+    List<E> live = new ArrayList<>(liveCount);
+    for (int i = 0; i < batch.length; i++) {
+      if (!stopped[i]) {
+        live.add(UnsafeTypeUtils.forceCast(batch[i]));
+      }
+    }
+    return live;
+  }
+
+  /** Invokes the listener of the subscription, recording its metrics if it has any. */
+  void invokeInstrumented(Subscription<E> subscription, @Nullable E event, EventControl control) {
+    ListenerMetrics metrics = subscription.metrics;
+    if (metrics == null) {
+      subscription.listener.on(event, control);
+      return;
+    }
+    long start = System.nanoTime();
+    boolean threw = true;
+    try {
+      subscription.listener.on(event, control);
+      threw = false;
+    } finally {
+      metrics.record(System.nanoTime() - start, threw, control.shouldStop);
+    }
+  }
+
+  /** Invokes a batch listener, recording its metrics if it has any. */
+  private void invokeInstrumented(
+      Subscription<E> subscription,
+      Listener.Batch<E> listener,
+      Collection<? extends E> events,
+      EventControl control) {
+    ListenerMetrics metrics = subscription.metrics;
+    if (metrics == null) {
+      listener.onBatch(events, control);
+      return;
+    }
+    long start = System.nanoTime();
+    boolean threw = true;
+    try {
+      listener.onBatch(events, control);
+      threw = false;
+    } finally {
+      metrics.record(System.nanoTime() - start, threw, control.shouldStop);
+    }
+  }
+
+  /**
+   * Returns a control object for an emission. The caller must reset {@link EventControl#inUse} once
+   * the emission is over.
+   *
+   * <p>The control object is reused across emissions, so that emitting does not allocate. A
+   * re-entrant emission, started by a listener while the reusable object is in use, gets a new one.
+   */
+  EventControl acquireControl() {
+    EventControl control = reusableControl();
+    if (control.inUse) {
+      control = new EventControl();
+    }
+    control.inUse = true;
+    return control;
+  }
+
+  /** Returns the control object reused by emissions of the calling thread. */
+  EventControl reusableControl() {
+    return reusableControl;
+  }
+
+  /** Removes subscriptions whose key has been collected, then returns the snapshot to dispatch. */
+  DispatchTable<E> dispatchTable() {
+    cleanupDeadKeySubscriptions();
+    return table();
+  }
+
+  /**
+   * Decides whether the subscription should be invoked by the current emission. One-time
+   * subscriptions are removed by this call.
+   */
+  boolean claim(Subscription<E> subscription) {
+    if (subscription.removed) {
+      return false;
+    }
+    if (subscription.once) {
+      // Removed before invocation, so that a re-entrant emit does not invoke it again
+      markRemoved(subscription);
+    }
+    return true;
+  }
+
+  /** Returns whether the subscription has been removed. */
+  boolean isRemoved(Subscription<E> subscription) {
+    return subscription.removed;
+  }
+
+  /**
+   * Removes a subscription from within an emission.
+   *
+   * @return whether this call removed it
+   */
+  boolean removeByEmit(Subscription<E> subscription) {
+    if (subscription.removed) {
+      return false;
+    }
+    markRemoved(subscription);
+    return true;
+  }
+
+  /** Called at the end of an emission. */
+  void republish() {}
+
+  /**
+   * Returns the current dispatch snapshot, publishing a new one first if any subscription changed
+   * since the last call.
+   *
+   * <p>The returned array must not be modified. It may contain subscriptions that have been removed
+   * after it was published, so callers must skip subscriptions that are {@linkplain
+   * Subscription#removed marked as removed}.
+   */
+  protected Subscription<E>[] snapshot() {
+    return table().all;
+  }
+
+  /** Like {@link #snapshot()}, with subscriptions also grouped by discriminant. */
+  DispatchTable<E> table() {
+    if (snapshotStale) {
+      table =
+          index.size() == 0
+              ? DispatchTable.empty()
+              : DispatchTable.build(index.toArray(), discriminator);
+      snapshotStale = false;
+    }
+    return table;
+  }
+
+  /**
+   * Marks the subscription as removed and drops it from {@link #index}. It is skipped from
+   * now on, and left out of the next snapshot.
+   */
+  protected void markRemoved(Subscription<E> subscription) {
+    if (subscription.removed) {
+      return;
+    }
+    subscription.removed = true;
+    afterRemoved(subscription);
+  }
+
+  /** Drops a subscription that has just been marked as removed from the index and the key map. */
+  void afterRemoved(Subscription<E> subscription) {
+    if (index.remove(subscription)) {
+      snapshotStale = true;
+    }
+
+    Object key = subscription.getKey();
+    if (key != null) {
+      subscriptionsByKey.remove(key, subscription);
+    }
+  }
+
+  /**
+   * Marks subscriptions whose key has been collected as removed. Costs nothing unless some key has
+   * been enqueued since the last call.
+   *
+   * <p>Their map entries are not touched here: a map that holds keys strongly never lets a key be
+   * collected, and a weak-keyed map expunges entries of collected keys by itself.
+   */
   private void cleanupDeadKeySubscriptions() {
-    // Remove from list
-    subscriptions.removeIf(sub -> sub.keyRef != null && sub.getKey() == null);
+    Subscription<E> subscription;
+    while ((subscription = pollCollectedKey()) != null) {
+      markRemoved(subscription);
+    }
+  }
+
+  /** Returns a subscription whose key has been collected, or {@code null} if there is none. */
+  @Nullable Subscription<E> pollCollectedKey() {
+    Reference<?> ref = collectedKeys.poll();
+    if (ref == null) {
+      return null;
+    }
+    KeyReference<E> keyRef = UnsafeTypeUtils.forceCast(ref);
+    return keyRef.subscription;
+  }
+
+  /**
+   * Enables or disables per-listener metrics.
+   *
+   * <p>While enabled, every invocation of a listener is timed with {@link System#nanoTime()} and
+   * counted, see {@link ListenerMetrics.Snapshot}. While disabled, emissions only pay for reading
+   * this flag once. Disabling keeps the numbers collected so far; enabling again continues from
+   * them.
+   *
+   * @return this emitter (for chaining)
+   */
+  public EventEmitter<E> setMetricsEnabled(boolean enabled) {
+    if (enabled) {
+      for (Subscription<E> s = index.first(); s != null; s = s.next) {
+        if (s.metrics == null) {
+          s.metrics = new ListenerMetrics();
+        }
+      }
+    }
+    metricsEnabled = enabled;
+    return this;
+  }
 
-    // Remove from map (entries with collected keys)
-    subscriptionsByKey
-        .entrySet()
-        .removeIf(entry -> entry.getValue().keyRef != null && entry.getValue().getKey() == null);
+  /** Returns whether per-listener metrics are enabled. */
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /**
+   * Returns the metrics of the current subscriptions in dispatch order. Only subscriptions that
+   * existed or were added while metrics were enabled are included.
+   */
+  public List<ListenerMetrics.Snapshot> metricsSnapshot() {
+    List<ListenerMetrics.Snapshot> snapshots = new ArrayList<>();
+    for (Subscription<E> s = index.first(); s != null; s = s.next) {
+      ListenerMetrics metrics = s.metrics;
+      if (metrics != null && !s.removed) {
+        snapshots.add(metrics.snapshot(s.listener, s.getKey()));
+      }
+    }
+    return snapshots;
   }
 
   /** Sugar method for listener declaration */
@@ -461,6 +1008,11 @@ public class EventEmitter<E> {
     return listener;
   }
 
+  /** Sugar method for batch listener declaration */
+  public Listener<E> batchListener(Listener.Batch<E> listener) {
+    return listener;
+  }
+
   /**
    * A listener that receives an event and an optional {@link EventControl}.
    *
@@ -488,15 +1040,37 @@ public class EventEmitter<E> {
         on(event);
       }
     }
+
+    /**
+     * A listener that opts into receiving all events of {@link EventEmitter#emitAll} in one call.
+     *
+     * <p>When dispatched by {@link EventEmitter#emit(Object)}, it receives a batch of one event.
+     */
+    interface Batch<E> extends Listener<E> {
+
+      /**
+       * @param events the events of the batch that have not been stopped by higher-priority
+       *     listeners; must not be modified or retained
+       */
+      void onBatch(Collection<? extends E> events, EventControl control);
+
+      default void on(E event, EventControl control) {
+        onBatch(Collections.singletonList(event), control);
+      }
+    }
   }
 
   /**
    * Controls event propagation and listener lifecycle within a single emission.
    *
-   * <p>Passed to {@link Listener} during {@link EventEmitter#emit}.
+   * <p>Passed to {@link Listener} during {@link EventEmitter#emit}. The instance is reused by later
+   * emissions, so it is only valid until the listener returns and must not be retained.
    */
   public static class EventControl {
 
+    /** Whether an emission is currently using this object */
+    boolean inUse = false;
+
     /** Whether event propagation is going to be stopped */
     protected boolean shouldStop = false;
 
@@ -538,19 +1112,73 @@ public class EventEmitter<E> {
     final int priority;
     final boolean once;
 
+    /** Whether this subscription has been removed from its emitter */
+    boolean removed = false;
+
+    /** Links in the {@link SubscriptionIndex}, null if not linked */
+    @Nullable Subscription<E> prev = null;
+
+    @Nullable Subscription<E> next = null;
+
+    /** Whether this subscription is in a {@link SubscriptionIndex} */
+    boolean indexed = false;
+
+    /** Metrics of this subscription, null if metrics have never been enabled for it */
+    @Nullable ListenerMetrics metrics = null;
+
+    /** Matches every discriminant */
+    static final Object ANY = new Object();
+
+    /** The discriminant of the events this subscription receives, see {@link #onMatch} */
+    @Nullable Object discriminant = ANY;
+
+    /** Only events accepted by this filter are received, see {@link #onIf} */
+    @Nullable Predicate<? super E> filter = null;
+
+    /** Creates a keyless subscription. */
+    Subscription(Listener<E> listener, int priority, boolean once) {
+      this.keyRef = null;
+      this.listener = listener;
+      this.priority = priority;
+      this.once = once;
+    }
+
     /**
-     * @param key the key object; if non-null, will be held weakly
+     * Creates a keyed subscription.
+     *
+     * @param key the key object, will be held weakly
+     * @param keyQueue the queue to which the key reference is enqueued once the key is collected
      */
-    Subscription(@Nullable Object key, Listener<E> listener, int priority, boolean once) {
-      this.keyRef = (key == null) ? null : new WeakReference<>(key);
+    Subscription(
+        Object key,
+        ReferenceQueue<Object> keyQueue,
+        Listener<E> listener,
+        int priority,
+        boolean once) {
+      this.keyRef = new KeyReference<>(key, keyQueue, this);
       this.listener = listener;
       this.priority = priority;
       this.once = once;
     }
 
+    /** Whether this subscription only receives some events */
+    boolean isConditional() {
+      return discriminant != ANY || filter != null;
+    }
+
     /** Returns the key if still reachable, or null if collected / keyless. */
     @Nullable Object getKey() {
       return keyRef == null ? null : keyRef.get();
     }
   }
+
+  /** A weak reference to a subscription key that remembers which subscription it belongs to. */
+  private static final class KeyReference<E> extends WeakReference<Object> {
+    final Subscription<E> subscription;
+
+    KeyReference(Object key, ReferenceQueue<Object> queue, Subscription<E> subscription) {
+      super(key, queue);
+      this.subscription = subscription;
+    }
+  }
 }
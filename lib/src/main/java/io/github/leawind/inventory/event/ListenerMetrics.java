@@ -0,0 +1,84 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Invocation metrics of a single listener, collected by an emitter while its metrics are enabled.
+ *
+ * <p>Safe to update from several emitting threads. Read it through {@link #snapshot}.
+ */
+public final class ListenerMetrics {
+  private final LongAdder invocations = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+  private final LongAdder exceptions = new LongAdder();
+  private final LongAdder stops = new LongAdder();
+
+  ListenerMetrics() {}
+
+  /**
+   * Records one invocation.
+   *
+   * @param nanos how long the invocation took
+   * @param threw whether the listener threw
+   * @param stopped whether the listener stopped propagation
+   */
+  void record(long nanos, boolean threw, boolean stopped) {
+    invocations.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    if (threw) {
+      exceptions.increment();
+    } else if (stopped) {
+      stops.increment();
+    }
+  }
+
+  /**
+   * Returns the current numbers.
+   *
+   * <p>Counters are read one by one, so a snapshot taken while the listener is being invoked may be
+   * slightly inconsistent.
+   *
+   * @param listener the listener these metrics belong to
+   * @param key the key of the subscription, or {@code null} if keyless
+   */
+  Snapshot snapshot(Object listener, @Nullable Object key) {
+    return new Snapshot(
+        listener,
+        key,
+        invocations.sum(),
+        totalNanos.sum(),
+        maxNanos.get(),
+        exceptions.sum(),
+        stops.sum());
+  }
+
+  /**
+   * Metrics of a listener at some point in time.
+   *
+   * @param listener the listener
+   * @param key the key of the subscription, or {@code null} if keyless
+   * @param invocations number of invocations, including those that threw
+   * @param totalNanos cumulative time spent in the listener
+   * @param maxNanos longest single invocation
+   * @param exceptions number of invocations that threw
+   * @param stops number of invocations that stopped propagation to lower-priority listeners
+   */
+  public record Snapshot(
+      Object listener,
+      @Nullable Object key,
+      long invocations,
+      long totalNanos,
+      long maxNanos,
+      long exceptions,
+      long stops) {
+
+    /** Returns the mean time of an invocation, or 0 if never invoked. */
+    public double meanNanos() {
+      return invocations == 0 ? 0 : (double) totalNanos / invocations;
+    }
+  }
+}
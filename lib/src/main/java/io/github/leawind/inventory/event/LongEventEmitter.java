@@ -0,0 +1,55 @@
+package io.github.leawind.inventory.event;
+
+/**
+ * An event emitter of {@code long} values, without boxing.
+ *
+ * <p>Like {@link SimpleEventEmitter}, listeners are invoked in subscription order. Like {@link
+ * SingleEventEmitter}, listeners registered with {@code once} are removed when first invoked.
+ *
+ * <p>Listeners are kept in an array that is replaced on every change, so an emission allocates
+ * nothing and is not affected by listeners added or removed while it runs.
+ */
+public class LongEventEmitter
+    extends PrimitiveEventEmitter<LongEventEmitter.Listener, LongEventEmitter> {
+
+  /**
+   * Registers a persistent listener that will be called on every emit.
+   *
+   * @return this emitter for method chaining
+   */
+  public LongEventEmitter on(Listener.NoArg listener) {
+    return on((Listener) listener);
+  }
+
+  /**
+   * Registers a one-time listener that will be called once and then removed.
+   *
+   * @return this emitter for method chaining
+   */
+  public LongEventEmitter once(Listener.NoArg listener) {
+    return once((Listener) listener);
+  }
+
+  /**
+   * Emits a value to all listeners, in subscription order. One-time listeners are removed before
+   * any listener is invoked.
+   */
+  public void emit(long value) {
+    for (Object listener : beginEmit()) {
+      ((Listener) listener).on(value);
+    }
+  }
+
+  public interface Listener {
+    void on(long value);
+
+    interface NoArg extends Listener {
+      void on();
+
+      @Override
+      default void on(long value) {
+        on();
+      }
+    }
+  }
+}
@@ -0,0 +1,346 @@
+package io.github.leawind.inventory.event;
+
+import io.github.leawind.inventory.misc.UncheckedCloseable;
+import io.github.leawind.inventory.type.UnsafeTypeUtils;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hands events over to consumer threads through a preallocated ring buffer, so that listener work
+ * does not run on the producer thread.
+ *
+ * <p>The ring buffer holds mutable event slots created once by a factory. A producer claims the
+ * next sequence, writes the event into its slot and publishes the sequence:
+ *
+ * <pre>{@code
+ * PipelinedEventEmitter<MutableEvent> emitter =
+ *     new PipelinedEventEmitter.Builder<>(MutableEvent::new).bufferSize(1024).build();
+ * emitter.listeners().on(e -> handle(e));
+ * emitter.start();
+ *
+ * long seq = emitter.next();
+ * emitter.get(seq).set(payload);
+ * emitter.publish(seq);
+ * }</pre>
+ *
+ * <p>Consumer threads take published sequences one by one and run the whole listener chain of
+ * {@link #listeners()} for each, with the usual priority, once and stop semantics. Each event is
+ * processed by exactly one consumer. With more than one consumer, events may be processed out of
+ * order and listeners may be invoked concurrently.
+ *
+ * <p>Any number of threads may publish. A producer blocks, using the {@link WaitStrategy}, while
+ * the ring buffer is full.
+ *
+ * <p>Slots are reused once their event has been processed: listeners must not retain the event,
+ * and producers must not touch a slot after publishing it.
+ *
+ * @param <E> The event type
+ */
+public class PipelinedEventEmitter<E> implements UncheckedCloseable {
+  private final Object[] slots;
+  private final int mask;
+
+  /** The sequence last published into each slot */
+  private final AtomicLongArray published;
+
+  /** The last sequence claimed by producers */
+  private final AtomicLong cursor = new AtomicLong(-1);
+
+  /** The last sequence claimed by consumers */
+  private final AtomicLong workSequence = new AtomicLong(-1);
+
+  /** A recent minimum of the consumer sequences, so that producers rarely scan all consumers */
+  private volatile long gatingCache = -1;
+
+  private final ConcurrentEventEmitter<E> listeners;
+  private final WaitStrategy waitStrategy;
+  private final BiConsumer<Throwable, E> exceptionHandler;
+
+  private final Worker<?>[] workers;
+  private final Thread[] threads;
+
+  private volatile boolean started = false;
+  private volatile boolean closed = false;
+
+  private PipelinedEventEmitter(
+      Supplier<E> slotFactory,
+      int bufferSize,
+      int consumerCount,
+      WaitStrategy waitStrategy,
+      ThreadFactory threadFactory,
+      BiConsumer<Throwable, E> exceptionHandler,
+      ConcurrentEventEmitter<E> listeners) {
+    if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+      throw new IllegalArgumentException("bufferSize must be a power of 2");
+    }
+    if (consumerCount <= 0) {
+      throw new IllegalArgumentException("consumers must be > 0");
+    }
+
+    slots = new Object[bufferSize];
+    published = new AtomicLongArray(bufferSize);
+    for (int i = 0; i < bufferSize; i++) {
+      slots[i] = slotFactory.get();
+      // A sequence that can never be claimed for this slot
+      published.set(i, i - bufferSize);
+    }
+    mask = bufferSize - 1;
+
+    this.listeners = listeners;
+    this.waitStrategy = waitStrategy;
+    this.exceptionHandler = exceptionHandler;
+
+    workers = new Worker<?>[consumerCount];
+    threads = new Thread[consumerCount];
+    for (int i = 0; i < consumerCount; i++) {
+      workers[i] = new Worker<>(this);
+      threads[i] = threadFactory.newThread(workers[i]);
+    }
+  }
+
+  /** Returns the emitter whose listeners are run by the consumer threads. */
+  public ConcurrentEventEmitter<E> listeners() {
+    return listeners;
+  }
+
+  /** Returns the number of slots in the ring buffer. */
+  public int bufferSize() {
+    return slots.length;
+  }
+
+  /**
+   * Starts the consumer threads.
+   *
+   * @throws IllegalStateException if already started or closed
+   */
+  public synchronized void start() {
+    if (started || closed) {
+      throw new IllegalStateException("Already started or closed");
+    }
+    started = true;
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
+  /**
+   * Claims the next sequence. Blocks while the ring buffer is full.
+   *
+   * <p>The claimed sequence must be {@linkplain #publish(long) published}, even if writing the
+   * event fails, or consumers will stall at it.
+   *
+   * @return the claimed sequence
+   * @throws IllegalStateException if closed
+   */
+  public long next() {
+    if (closed) {
+      throw new IllegalStateException("Closed");
+    }
+    long sequence = cursor.incrementAndGet();
+    long wrapPoint = sequence - slots.length;
+    if (wrapPoint > gatingCache) {
+      long gating;
+      int attempt = 0;
+      while (wrapPoint > (gating = minConsumerSequence())) {
+        waitStrategy.idle(attempt++);
+      }
+      gatingCache = gating;
+    }
+    return sequence;
+  }
+
+  /** Returns the event slot of a claimed sequence. */
+  public E get(long sequence) {
+    return UnsafeTypeUtils.forceCast(slots[(int) (sequence & mask)]);
+  }
+
+  /** Makes the event of a claimed sequence visible to consumers. */
+  public void publish(long sequence) {
+    published.set((int) (sequence & mask), sequence);
+  }
+
+  /**
+   * Claims a slot, lets {@code writer} fill it, and publishes it.
+   *
+   * @param writer writes the event into the slot
+   */
+  public void publish(Consumer<? super E> writer) {
+    long sequence = next();
+    try {
+      writer.accept(get(sequence));
+    } finally {
+      publish(sequence);
+    }
+  }
+
+  /**
+   * Claims a slot, lets {@code writer} fill it from {@code arg}, and publishes it.
+   *
+   * <p>Unlike {@link #publish(Consumer)}, a non-capturing writer does not allocate.
+   *
+   * @param writer writes {@code arg} into the slot
+   */
+  public <A> void publish(BiConsumer<? super E, ? super A> writer, A arg) {
+    long sequence = next();
+    try {
+      writer.accept(get(sequence), arg);
+    } finally {
+      publish(sequence);
+    }
+  }
+
+  /**
+   * Stops accepting events, waits until the consumers have processed every claimed sequence, then
+   * stops them. Events published concurrently with this call may be dropped.
+   *
+   * <p>If the calling thread is interrupted while waiting, returns early with the interrupt status
+   * set.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    if (!started) {
+      return;
+    }
+    try {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private long minConsumerSequence() {
+    long min = Long.MAX_VALUE;
+    for (Worker<?> worker : workers) {
+      min = Math.min(min, worker.sequence);
+    }
+    return min;
+  }
+
+  private static final class Worker<E> implements Runnable {
+    private final PipelinedEventEmitter<E> emitter;
+
+    /** Every sequence up to this one has been processed as far as this worker is concerned */
+    volatile long sequence = -1;
+
+    Worker(PipelinedEventEmitter<E> emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void run() {
+      AtomicLong workSequence = emitter.workSequence;
+      while (true) {
+        // Claim the next sequence
+        long next;
+        do {
+          next = workSequence.get() + 1;
+          sequence = next - 1;
+        } while (!workSequence.compareAndSet(next - 1, next));
+
+        int index = (int) (next & emitter.mask);
+        int attempt = 0;
+        while (emitter.published.get(index) != next) {
+          if (emitter.closed && next > emitter.cursor.get()) {
+            // Nothing left to process
+            sequence = Long.MAX_VALUE;
+            return;
+          }
+          emitter.waitStrategy.idle(attempt++);
+        }
+
+        E event = emitter.get(next);
+        try {
+          emitter.listeners.emit(event);
+        } catch (Throwable e) {
+          emitter.exceptionHandler.accept(e, event);
+        }
+      }
+    }
+  }
+
+  public static class Builder<E> {
+    private final Supplier<E> slotFactory;
+    private int bufferSize = 1024;
+    private int consumers = 1;
+    private WaitStrategy waitStrategy = WaitStrategy.yielding();
+    private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+    private BiConsumer<Throwable, E> exceptionHandler =
+        (e, event) -> {
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        };
+    private ConcurrentEventEmitter<E> listeners = new ConcurrentEventEmitter<>();
+
+    /**
+     * @param slotFactory creates the mutable event objects that fill the ring buffer
+     */
+    public Builder(Supplier<E> slotFactory) {
+      this.slotFactory = slotFactory;
+    }
+
+    /** Number of slots, must be a power of 2 */
+    public Builder<E> bufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /** Number of consumer threads */
+    public Builder<E> consumers(int consumers) {
+      this.consumers = consumers;
+      return this;
+    }
+
+    public Builder<E> waitStrategy(WaitStrategy waitStrategy) {
+      this.waitStrategy = waitStrategy;
+      return this;
+    }
+
+    public Builder<E> threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = threadFactory;
+      return this;
+    }
+
+    /**
+     * Receives exceptions thrown by listeners. The consumer then goes on with the next event.
+     *
+     * <p>By default, exceptions go to the uncaught exception handler of the consumer thread.
+     */
+    public Builder<E> exceptionHandler(BiConsumer<Throwable, E> exceptionHandler) {
+      this.exceptionHandler = exceptionHandler;
+      return this;
+    }
+
+    /** Uses an existing emitter as the listener chain */
+    public Builder<E> listeners(ConcurrentEventEmitter<E> listeners) {
+      this.listeners = listeners;
+      return this;
+    }
+
+    public PipelinedEventEmitter<E> build() {
+      if (slotFactory == null) {
+        throw new IllegalStateException("Slot factory must be provided");
+      }
+      return new PipelinedEventEmitter<>(
+          slotFactory,
+          bufferSize,
+          consumers,
+          waitStrategy,
+          threadFactory,
+          exceptionHandler,
+          listeners);
+    }
+  }
+}
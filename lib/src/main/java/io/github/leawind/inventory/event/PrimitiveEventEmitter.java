@@ -0,0 +1,149 @@
+package io.github.leawind.inventory.event;
+
+import java.util.Arrays;
+
+/**
+ * Listener bookkeeping shared by the emitters of primitive values, {@link IntEventEmitter}, {@link
+ * LongEventEmitter} and {@link DoubleEventEmitter}, which only add a typed {@code emit}.
+ *
+ * <p>Listeners are kept in an array that is replaced on every change, so an emission allocates
+ * nothing and is not affected by listeners added or removed while it runs.
+ *
+ * @param <L> the listener type
+ * @param <S> the emitter type, returned for method chaining
+ */
+abstract class PrimitiveEventEmitter<L, S extends PrimitiveEventEmitter<L, S>> {
+  private static final Object[] NO_LISTENERS = new Object[0];
+  private static final boolean[] NO_FLAGS = new boolean[0];
+
+  private Object[] listeners = NO_LISTENERS;
+
+  /** Whether the listener at the same index is one-time */
+  private boolean[] onceFlags = NO_FLAGS;
+
+  /** Number of true elements in {@link #onceFlags} */
+  private int onceCount = 0;
+
+  @SuppressWarnings("unchecked")
+  private S self() {
+    return (S) this;
+  }
+
+  /**
+   * Removes all listeners.
+   *
+   * @return this emitter for method chaining
+   */
+  public S clear() {
+    listeners = NO_LISTENERS;
+    onceFlags = NO_FLAGS;
+    onceCount = 0;
+    return self();
+  }
+
+  /** Returns whether any listener is registered. */
+  public boolean hasListeners() {
+    return listeners.length > 0;
+  }
+
+  /** Returns the number of registered listeners. */
+  public int size() {
+    return listeners.length;
+  }
+
+  /**
+   * Registers a persistent listener that will be called on every emit.
+   *
+   * @return this emitter for method chaining
+   */
+  public S on(L listener) {
+    return add(listener, false);
+  }
+
+  /**
+   * Registers a one-time listener that will be called once and then removed.
+   *
+   * @return this emitter for method chaining
+   */
+  public S once(L listener) {
+    return add(listener, true);
+  }
+
+  /**
+   * Removes the first registration of the given listener, if any.
+   *
+   * @return this emitter for method chaining
+   */
+  public S off(L listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        remove(i);
+        break;
+      }
+    }
+    return self();
+  }
+
+  /**
+   * Starts an emission: returns the listeners to invoke, in subscription order, after removing the
+   * one-time ones from this emitter. The returned array is never modified.
+   */
+  final Object[] beginEmit() {
+    Object[] snapshot = listeners;
+    if (onceCount > 0) {
+      removeOnceListeners();
+    }
+    return snapshot;
+  }
+
+  private S add(L listener, boolean once) {
+    int n = listeners.length;
+    Object[] newListeners = Arrays.copyOf(listeners, n + 1);
+    boolean[] newFlags = Arrays.copyOf(onceFlags, n + 1);
+    newListeners[n] = listener;
+    newFlags[n] = once;
+    listeners = newListeners;
+    onceFlags = newFlags;
+    if (once) {
+      onceCount++;
+    }
+    return self();
+  }
+
+  private void remove(int index) {
+    int n = listeners.length;
+    if (n == 1) {
+      clear();
+      return;
+    }
+    if (onceFlags[index]) {
+      onceCount--;
+    }
+    Object[] newListeners = new Object[n - 1];
+    boolean[] newFlags = new boolean[n - 1];
+    System.arraycopy(listeners, 0, newListeners, 0, index);
+    System.arraycopy(listeners, index + 1, newListeners, index, n - index - 1);
+    System.arraycopy(onceFlags, 0, newFlags, 0, index);
+    System.arraycopy(onceFlags, index + 1, newFlags, index, n - index - 1);
+    listeners = newListeners;
+    onceFlags = newFlags;
+  }
+
+  private void removeOnceListeners() {
+    int remaining = listeners.length - onceCount;
+    if (remaining == 0) {
+      clear();
+      return;
+    }
+    Object[] newListeners = new Object[remaining];
+    int j = 0;
+    for (int i = 0; i < listeners.length; i++) {
+      if (!onceFlags[i]) {
+        newListeners[j++] = listeners[i];
+      }
+    }
+    listeners = newListeners;
+    onceFlags = new boolean[remaining];
+    onceCount = 0;
+  }
+}
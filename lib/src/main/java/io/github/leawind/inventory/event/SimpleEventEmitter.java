@@ -2,12 +2,23 @@ package io.github.leawind.inventory.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.jspecify.annotations.Nullable;
 
 public class SimpleEventEmitter<E> {
 
   private final Collection<Listener<E>> listeners;
 
+  /** See {@link #setMetricsEnabled(boolean)} */
+  private boolean metricsEnabled = false;
+
+  /** Metrics per listener instance, null if metrics have never been enabled */
+  private @Nullable Map<Listener<E>, ListenerMetrics> metrics = null;
+
   public SimpleEventEmitter() {
     this.listeners = new ArrayList<>();
   }
@@ -18,6 +29,9 @@ public class SimpleEventEmitter<E> {
 
   public SimpleEventEmitter<E> clear() {
     listeners.clear();
+    if (metrics != null) {
+      metrics.clear();
+    }
     return this;
   }
 
@@ -36,9 +50,118 @@ public class SimpleEventEmitter<E> {
   }
 
   public void emit(@Nullable E event) {
+    if (metricsEnabled) {
+      for (Listener<E> listener : listeners) {
+        invokeInstrumented(listener, event);
+      }
+      return;
+    }
     listeners.forEach(listener -> listener.on(event));
   }
 
+  /**
+   * Emits a batch of events, walking the listeners once.
+   *
+   * <p>Listeners implementing {@link Listener.Batch} receive the whole batch in a single call.
+   * Other listeners are invoked once for each event, in iteration order, before the next listener
+   * is invoked.
+   *
+   * @param events the event payloads; elements may be {@code null}
+   */
+  public void emitAll(Collection<? extends E> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    boolean instrumented = metricsEnabled;
+    for (Listener<E> listener : listeners) {
+      if (listener instanceof Listener.Batch<E> batchListener) {
+        if (instrumented) {
+          invokeInstrumented(batchListener, events);
+        } else {
+          batchListener.onBatch(events);
+        }
+      } else {
+        for (E event : events) {
+          if (instrumented) {
+            invokeInstrumented(listener, event);
+          } else {
+            listener.on(event);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Enables or disables per-listener metrics.
+   *
+   * <p>While enabled, every invocation of a listener is timed with {@link System#nanoTime()} and
+   * counted. Subscriptions of the same listener instance share their metrics. While disabled,
+   * emissions only pay for reading this flag once. Disabling keeps the numbers collected so far.
+   *
+   * @return this emitter (for chaining)
+   */
+  public SimpleEventEmitter<E> setMetricsEnabled(boolean enabled) {
+    if (enabled && metrics == null) {
+      metrics = new IdentityHashMap<>();
+    }
+    metricsEnabled = enabled;
+    return this;
+  }
+
+  /** Returns whether per-listener metrics are enabled. */
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /**
+   * Returns the metrics of the listeners that have been invoked while metrics were enabled, in
+   * subscription order.
+   */
+  public List<ListenerMetrics.Snapshot> metricsSnapshot() {
+    List<ListenerMetrics.Snapshot> snapshots = new ArrayList<>();
+    if (metrics == null) {
+      return snapshots;
+    }
+    Set<Listener<E>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Listener<E> listener : listeners) {
+      ListenerMetrics listenerMetrics = metrics.get(listener);
+      if (listenerMetrics != null && seen.add(listener)) {
+        snapshots.add(listenerMetrics.snapshot(listener, null));
+      }
+    }
+    return snapshots;
+  }
+
+  private ListenerMetrics metricsOf(Listener<E> listener) {
+    assert metrics != null;
+    return metrics.computeIfAbsent(listener, l -> new ListenerMetrics());
+  }
+
+  private void invokeInstrumented(Listener<E> listener, @Nullable E event) {
+    ListenerMetrics listenerMetrics = metricsOf(listener);
+    long start = System.nanoTime();
+    boolean threw = true;
+    try {
+      listener.on(event);
+      threw = false;
+    } finally {
+      listenerMetrics.record(System.nanoTime() - start, threw, false);
+    }
+  }
+
+  private void invokeInstrumented(Listener.Batch<E> listener, Collection<? extends E> events) {
+    ListenerMetrics listenerMetrics = metricsOf(listener);
+    long start = System.nanoTime();
+    boolean threw = true;
+    try {
+      listener.onBatch(events);
+      threw = false;
+    } finally {
+      listenerMetrics.record(System.nanoTime() - start, threw, false);
+    }
+  }
+
   public interface Listener<E> {
     void on(E event);
 
@@ -50,5 +173,21 @@ public class SimpleEventEmitter<E> {
         on();
       }
     }
+
+    /**
+     * A listener that opts into receiving all events of {@link SimpleEventEmitter#emitAll} in one
+     * call.
+     */
+    interface Batch<E> extends Listener<E> {
+      /**
+       * @param events the events of the batch; must not be modified or retained
+       */
+      void onBatch(Collection<? extends E> events);
+
+      @Override
+      default void on(E event) {
+        onBatch(Collections.singletonList(event));
+      }
+    }
   }
 }
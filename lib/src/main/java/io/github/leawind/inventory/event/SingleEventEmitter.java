@@ -11,6 +11,12 @@ public class SingleEventEmitter<E> {
   protected boolean isOnce;
   protected @Nullable Listener<E> listener;
 
+  /** See {@link #setMetricsEnabled(boolean)} */
+  private boolean metricsEnabled = false;
+
+  /** Metrics of the current listener, null if it has never been registered with metrics enabled */
+  private @Nullable ListenerMetrics metrics = null;
+
   /**
    * Clears the current listener.
    *
@@ -18,6 +24,7 @@ public class SingleEventEmitter<E> {
    */
   public SingleEventEmitter<E> clear() {
     listener = null;
+    metrics = null;
     return this;
   }
 
@@ -46,9 +53,7 @@ public class SingleEventEmitter<E> {
    * @return this emitter for method chaining
    */
   public SingleEventEmitter<E> once(Listener.NoArg<E> listener) {
-    isOnce = true;
-    this.listener = listener;
-    return this;
+    return once((Listener<E>) listener);
   }
 
   /**
@@ -60,6 +65,7 @@ public class SingleEventEmitter<E> {
   public SingleEventEmitter<E> once(Listener<E> listener) {
     isOnce = true;
     this.listener = listener;
+    metrics = metricsEnabled ? new ListenerMetrics() : null;
     return this;
   }
 
@@ -70,9 +76,7 @@ public class SingleEventEmitter<E> {
    * @return this emitter for method chaining
    */
   public SingleEventEmitter<E> on(Listener.NoArg<E> listener) {
-    isOnce = false;
-    this.listener = listener;
-    return this;
+    return on((Listener<E>) listener);
   }
 
   /**
@@ -84,6 +88,7 @@ public class SingleEventEmitter<E> {
   public SingleEventEmitter<E> on(Listener<E> listener) {
     isOnce = false;
     this.listener = listener;
+    metrics = metricsEnabled ? new ListenerMetrics() : null;
     return this;
   }
 
@@ -94,6 +99,7 @@ public class SingleEventEmitter<E> {
    */
   public SingleEventEmitter<E> off() {
     listener = null;
+    metrics = null;
     return this;
   }
 
@@ -120,13 +126,64 @@ public class SingleEventEmitter<E> {
    */
   public void emit(@Nullable E event) {
     if (listener != null) {
-      listener.on(event);
+      if (metricsEnabled && metrics != null) {
+        invokeInstrumented(listener, metrics, event);
+      } else {
+        listener.on(event);
+      }
       if (isOnce) {
         off();
       }
     }
   }
 
+  /**
+   * Enables or disables metrics of the listener.
+   *
+   * <p>While enabled, every invocation is timed with {@link System#nanoTime()} and counted. Metrics
+   * belong to the current listener, and are reset when another listener is registered. While
+   * disabled, emissions only pay for reading this flag.
+   *
+   * @return this emitter for method chaining
+   */
+  public SingleEventEmitter<E> setMetricsEnabled(boolean enabled) {
+    if (enabled && metrics == null && listener != null) {
+      metrics = new ListenerMetrics();
+    }
+    metricsEnabled = enabled;
+    return this;
+  }
+
+  /** Returns whether metrics are enabled. */
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /**
+   * Returns the metrics of the current listener, or null if there is no listener or it has not been
+   * registered while metrics were enabled.
+   */
+  public ListenerMetrics.@Nullable Snapshot metricsSnapshot() {
+    Listener<E> current = listener;
+    ListenerMetrics currentMetrics = metrics;
+    if (current == null || currentMetrics == null) {
+      return null;
+    }
+    return currentMetrics.snapshot(current, null);
+  }
+
+  private static <E> void invokeInstrumented(
+      Listener<E> listener, ListenerMetrics metrics, @Nullable E event) {
+    long start = System.nanoTime();
+    boolean threw = true;
+    try {
+      listener.on(event);
+      threw = false;
+    } finally {
+      metrics.record(System.nanoTime() - start, threw, false);
+    }
+  }
+
   public interface Listener<E> {
     void on(E event);
 
@@ -0,0 +1,257 @@
+package io.github.leawind.inventory.event;
+
+import io.github.leawind.inventory.event.EventEmitter.Listener;
+import io.github.leawind.inventory.event.EventEmitter.Subscription;
+import io.github.leawind.inventory.type.UnsafeTypeUtils;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The subscriptions of an {@link EventEmitter}, in dispatch order.
+ *
+ * <p>Subscriptions are kept in an intrusive doubly linked list, sorted by priority in descending
+ * order, and in insertion order within the same priority.
+ *
+ * <ul>
+ *   <li>{@link #add}: O(log t), where t is the number of distinct priorities. The insertion point
+ *       is found through the last subscription of each priority.
+ *   <li>{@link #remove}: O(1), plus O(log t) if the subscription is the last one of its priority,
+ *       plus the number of subscriptions of the same listener instance.
+ *   <li>{@link #firstLive}: O(1), plus the number of subscriptions of the same listener instance.
+ * </ul>
+ *
+ * <p>Not thread-safe.
+ *
+ * @param <E> The event type
+ */
+final class SubscriptionIndex<E> {
+  private @Nullable Subscription<E> head = null;
+  private int size = 0;
+
+  /** The last subscription of each priority, highest priority first */
+  private final TreeMap<Integer, Subscription<E>> tierTails =
+      new TreeMap<>(Comparator.reverseOrder());
+
+  /**
+   * Subscriptions of each listener instance, in dispatch order.
+   *
+   * <p>A value is either a single {@link Subscription}, or a {@link List} of them if the same
+   * listener instance is subscribed more than once.
+   */
+  private final Map<Listener<E>, Object> byListener = new IdentityHashMap<>();
+
+  /** Returns the number of subscriptions in this index. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the first subscription in dispatch order; follow {@link Subscription#next} from it. */
+  @Nullable Subscription<E> first() {
+    return head;
+  }
+
+  /** Inserts the subscription after all subscriptions with higher or equal priority. */
+  void add(Subscription<E> subscription) {
+    int priority = subscription.priority;
+
+    // The closest tier whose priority is higher than or equal to the given one
+    Map.Entry<Integer, Subscription<E>> tier = tierTails.floorEntry(priority);
+    link(tier == null ? null : tier.getValue(), subscription);
+    tierTails.put(priority, subscription);
+
+    Object existing = byListener.putIfAbsent(subscription.listener, subscription);
+    if (existing != null) {
+      addDuplicate(existing, subscription);
+    }
+  }
+
+  /**
+   * Removes the subscription from this index.
+   *
+   * @return whether it was in this index
+   */
+  boolean remove(Subscription<E> subscription) {
+    if (!subscription.indexed) {
+      return false;
+    }
+
+    int priority = subscription.priority;
+    Subscription<E> next = subscription.next;
+    // Only the last subscription of its priority is in tierTails
+    if (next == null || next.priority != priority) {
+      Subscription<E> prev = subscription.prev;
+      if (prev != null && prev.priority == priority) {
+        tierTails.put(priority, prev);
+      } else {
+        tierTails.remove(priority);
+      }
+    }
+    unlink(subscription);
+
+    Object existing = byListener.get(subscription.listener);
+    if (existing == subscription) {
+      byListener.remove(subscription.listener);
+    } else if (existing != null) {
+      List<Subscription<E>> list = UnsafeTypeUtils.forceCast(existing);
+      list.remove(subscription);
+      if (list.size() == 1) {
+        byListener.put(subscription.listener, list.get(0));
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the first subscription of the given listener instance in dispatch order that is not
+   * marked as removed, or {@code null} if there is none.
+   */
+  @Nullable Subscription<E> firstLive(Listener<E> listener) {
+    Object existing = byListener.get(listener);
+    if (existing == null) {
+      return null;
+    }
+    if (existing instanceof Subscription<?>) {
+      Subscription<E> subscription = UnsafeTypeUtils.forceCast(existing);
+      return subscription.removed ? null : subscription;
+    }
+    List<Subscription<E>> list = UnsafeTypeUtils.forceCast(existing);
+    for (Subscription<E> subscription : list) {
+      if (!subscription.removed) {
+        return subscription;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the subscriptions in dispatch order. */
+  Subscription<E>[] toArray() {
+    @SuppressWarnings("rawtypes")
+    Subscription[] array = new Subscription[size];
+    int i = 0;
+    for (Subscription<E> s = head; s != null; s = s.next) {
+      array[i++] = s;
+    }
+    return UnsafeTypeUtils.forceCast(array);
+  }
+
+  /** Returns a read-only view of this index, in dispatch order. */
+  List<Subscription<E>> asList() {
+    return new AbstractList<>() {
+      /** O(index), prefer {@link #iterator()} */
+      @Override
+      public Subscription<E> get(int index) {
+        Objects.checkIndex(index, size);
+        Subscription<E> s = head;
+        for (int i = 0; i < index; i++) {
+          s = s.next;
+        }
+        return s;
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Subscription<E>> iterator() {
+        return new Iterator<>() {
+          private @Nullable Subscription<E> next = head;
+
+          @Override
+          public boolean hasNext() {
+            return next != null;
+          }
+
+          @Override
+          public Subscription<E> next() {
+            Subscription<E> s = next;
+            if (s == null) {
+              throw new NoSuchElementException();
+            }
+            next = s.next;
+            return s;
+          }
+        };
+      }
+    };
+  }
+
+  /** Removes all subscriptions. */
+  void clear() {
+    Subscription<E> s = head;
+    while (s != null) {
+      Subscription<E> next = s.next;
+      s.prev = null;
+      s.next = null;
+      s.indexed = false;
+      s = next;
+    }
+    head = null;
+    size = 0;
+    tierTails.clear();
+    byListener.clear();
+  }
+
+  /** Inserts the subscription after {@code prev}, or at the head if {@code prev} is null. */
+  private void link(@Nullable Subscription<E> prev, Subscription<E> subscription) {
+    Subscription<E> next = prev == null ? head : prev.next;
+    subscription.prev = prev;
+    subscription.next = next;
+    if (prev == null) {
+      head = subscription;
+    } else {
+      prev.next = subscription;
+    }
+    if (next != null) {
+      next.prev = subscription;
+    }
+    subscription.indexed = true;
+    size++;
+  }
+
+  private void unlink(Subscription<E> subscription) {
+    Subscription<E> prev = subscription.prev;
+    Subscription<E> next = subscription.next;
+    if (prev == null) {
+      head = next;
+    } else {
+      prev.next = next;
+    }
+    if (next != null) {
+      next.prev = prev;
+    }
+    subscription.prev = null;
+    subscription.next = null;
+    subscription.indexed = false;
+    size--;
+  }
+
+  /** Records another subscription of an already subscribed listener instance. */
+  private void addDuplicate(Object existing, Subscription<E> subscription) {
+    List<Subscription<E>> list;
+    if (existing instanceof Subscription<?>) {
+      list = new ArrayList<>(2);
+      list.add(UnsafeTypeUtils.forceCast(existing));
+      byListener.put(subscription.listener, list);
+    } else {
+      list = UnsafeTypeUtils.forceCast(existing);
+    }
+
+    // Keep dispatch order: after every subscription with higher or equal priority
+    int i = list.size();
+    while (i > 0 && list.get(i - 1).priority < subscription.priority) {
+      i--;
+    }
+    list.add(i, subscription);
+  }
+}
@@ -0,0 +1,57 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decides how a thread of a {@link PipelinedEventEmitter} waits: consumers waiting for the next
+ * event, and producers waiting for a free slot.
+ *
+ * <p>Waiting threads poll; no strategy needs to be signalled.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+  /**
+   * Called repeatedly while the condition the thread waits for is not met.
+   *
+   * @param attempt the number of previous calls within the same wait, starting from 0
+   */
+  void idle(int attempt);
+
+  /** Spins on the CPU. Lowest latency, but keeps a core busy for each waiting thread. */
+  static WaitStrategy busySpin() {
+    return attempt -> Thread.onSpinWait();
+  }
+
+  /** Spins for a while, then yields the CPU to other threads. */
+  static WaitStrategy yielding() {
+    return attempt -> {
+      if (attempt < 100) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    };
+  }
+
+  /**
+   * Spins, then yields, then parks the thread for the given time. Frees the CPU when idle, at the
+   * cost of up to {@code parkNanos} extra latency.
+   *
+   * @param parkNanos how long to park at a time, in nanoseconds
+   */
+  static WaitStrategy parking(long parkNanos) {
+    if (parkNanos <= 0) {
+      throw new IllegalArgumentException("parkNanos must be > 0");
+    }
+    return attempt -> {
+      if (attempt < 100) {
+        Thread.onSpinWait();
+      } else if (attempt < 200) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(parkNanos);
+      }
+    };
+  }
+}
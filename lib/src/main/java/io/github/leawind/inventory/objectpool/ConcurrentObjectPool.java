@@ -0,0 +1,339 @@
+package io.github.leawind.inventory.objectpool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Thread-safe object pool
+ *
+ * <p>Each platform thread keeps a small local cache, so most {@link #acquire()} and {@link
+ * #release(Object)} calls touch only thread-confined state. When a local cache is full, half of it
+ * is moved to a shared lock-free stack as a single batch; when it is empty, a batch is taken back
+ * from the shared stack. Objects may be released by a different thread than the one that acquired
+ * them.
+ *
+ * <p>Virtual threads are usually short-lived and numerous, so a local cache per virtual thread
+ * would mostly hold objects that are never reused. They bypass the local caches and share a plain
+ * array stack guarded by a {@link ReentrantLock}, which does not pin the carrier thread and does
+ * not allocate once grown. When it is empty, a batch of the lock-free stack is moved into it.
+ * Platform threads take objects from it when the lock-free stack is empty.
+ *
+ * <p>Objects left in the local cache of a thread that terminates are not returned to the pool.
+ */
+public class ConcurrentObjectPool<T> implements ObjectPool<T> {
+  /** {@code Thread::isVirtual}, null before Java 21 */
+  private static final @Nullable MethodHandle IS_VIRTUAL = findIsVirtual();
+
+  private final Supplier<T> factory;
+
+  private final PooledObjectPolicy<T> policy;
+
+  /** Number of objects moved between a local cache and the shared stack at once */
+  private final int batchSize;
+
+  private final ThreadLocal<LocalCache> localCaches;
+
+  /** Top of the shared stack */
+  private final AtomicReference<@Nullable Batch> shared = new AtomicReference<>();
+
+  /** Objects in the lock-free stack and in the stack of virtual threads */
+  private final AtomicInteger sharedCount = new AtomicInteger();
+
+  /** Guards {@link #virtualItems} */
+  private final ReentrantLock virtualLock = new ReentrantLock();
+
+  /** Stack used by virtual threads */
+  private Object[] virtualItems = new Object[16];
+
+  /** Written while holding {@link #virtualLock}, read without it to skip an empty stack */
+  private volatile int virtualSize = 0;
+
+  public ConcurrentObjectPool(Supplier<T> factory) {
+    this(factory, PooledObjectPolicy.none(), 64);
+  }
+
+  private ConcurrentObjectPool(
+      Supplier<T> factory, PooledObjectPolicy<T> policy, int localCapacity) {
+    if (localCapacity < 2) {
+      throw new IllegalArgumentException("localCapacity must be at least 2");
+    }
+    this.factory = factory;
+    this.policy = policy;
+    this.batchSize = localCapacity / 2;
+    this.localCaches = ThreadLocal.withInitial(() -> new LocalCache(localCapacity));
+  }
+
+  /**
+   * Returns the number of idle objects in the shared stack and in the local cache of the calling
+   * thread. Local caches of other threads are not counted.
+   */
+  @Override
+  public int idleCount() {
+    int count = sharedCount.get();
+    if (!isVirtual(Thread.currentThread())) {
+      count += localCaches.get().size;
+    }
+    return count;
+  }
+
+  @Override
+  public ObjectPool<T> ensureIdle(int minSize) {
+    while (idleCount() < minSize) {
+      release(factory.get());
+    }
+    return this;
+  }
+
+  @Override
+  public T acquire() {
+    T obj;
+    while ((obj = poll()) != null) {
+      if (policy.validate(obj)) {
+        return obj;
+      }
+      policy.destroy(obj);
+    }
+    return factory.get();
+  }
+
+  private @Nullable T poll() {
+    if (isVirtual(Thread.currentThread())) {
+      return pollVirtual();
+    }
+
+    LocalCache local = localCaches.get();
+    if (local.size == 0 && !refill(local)) {
+      return null;
+    }
+    Object obj = local.items[--local.size];
+    local.items[local.size] = null;
+    return cast(obj);
+  }
+
+  @Override
+  public void release(T obj) {
+    policy.reset(obj);
+    if (isVirtual(Thread.currentThread())) {
+      releaseVirtual(obj);
+      return;
+    }
+
+    LocalCache local = localCaches.get();
+    assert !local.contains(obj) : "Object released twice";
+    if (local.size == local.items.length) {
+      spill(local);
+    }
+    local.items[local.size++] = obj;
+  }
+
+  /** Moves the oldest half of a full local cache to the shared stack. */
+  private void spill(LocalCache local) {
+    Object[] items = new Object[batchSize];
+    System.arraycopy(local.items, 0, items, 0, batchSize);
+    int remaining = local.size - batchSize;
+    System.arraycopy(local.items, batchSize, local.items, 0, remaining);
+    for (int i = remaining; i < local.size; i++) {
+      local.items[i] = null;
+    }
+    local.size = remaining;
+    push(new Batch(items, batchSize));
+  }
+
+  /**
+   * Moves a batch from the shared stack to an empty local cache, or else some objects from the
+   * stack of virtual threads.
+   *
+   * @return false if both are empty
+   */
+  private boolean refill(LocalCache local) {
+    Batch batch = pop();
+    if (batch != null) {
+      System.arraycopy(batch.items, 0, local.items, 0, batch.count);
+      local.size = batch.count;
+      return true;
+    }
+    if (virtualSize == 0) {
+      return false;
+    }
+    virtualLock.lock();
+    try {
+      int count = Math.min(batchSize, virtualSize);
+      int from = virtualSize - count;
+      System.arraycopy(virtualItems, from, local.items, 0, count);
+      Arrays.fill(virtualItems, from, virtualSize, null);
+      virtualSize = from;
+      local.size = count;
+      sharedCount.addAndGet(-count);
+      return count > 0;
+    } finally {
+      virtualLock.unlock();
+    }
+  }
+
+  /** Acquisition by a virtual thread. Package-private for tests. */
+  @Nullable T pollVirtual() {
+    virtualLock.lock();
+    try {
+      if (virtualSize == 0) {
+        Batch batch = pop();
+        if (batch == null) {
+          return null;
+        }
+        // The popped batch is no longer reachable from the stack, its objects move here
+        sharedCount.addAndGet(batch.count);
+        ensureVirtualCapacity(batch.count);
+        System.arraycopy(batch.items, 0, virtualItems, 0, batch.count);
+        Arrays.fill(batch.items, 0, batch.count, null);
+        virtualSize = batch.count;
+      }
+      int size = virtualSize - 1;
+      Object obj = virtualItems[size];
+      virtualItems[size] = null;
+      virtualSize = size;
+      sharedCount.decrementAndGet();
+      return cast(obj);
+    } finally {
+      virtualLock.unlock();
+    }
+  }
+
+  /** Release by a virtual thread, after the reset. Package-private for tests. */
+  void releaseVirtual(T obj) {
+    virtualLock.lock();
+    try {
+      ensureVirtualCapacity(virtualSize + 1);
+      virtualItems[virtualSize] = obj;
+      virtualSize = virtualSize + 1;
+      sharedCount.incrementAndGet();
+    } finally {
+      virtualLock.unlock();
+    }
+  }
+
+  private void ensureVirtualCapacity(int capacity) {
+    if (capacity > virtualItems.length) {
+      virtualItems = Arrays.copyOf(virtualItems, Math.max(capacity, virtualItems.length * 2));
+    }
+  }
+
+  private void push(Batch batch) {
+    Batch top;
+    do {
+      top = shared.get();
+      batch.next = top;
+    } while (!shared.compareAndSet(top, batch));
+    sharedCount.addAndGet(batch.count);
+  }
+
+  /**
+   * Batches are never pushed again once popped, so comparing the top by identity is free of the
+   * ABA problem.
+   */
+  private @Nullable Batch pop() {
+    Batch top;
+    do {
+      top = shared.get();
+      if (top == null) {
+        return null;
+      }
+    } while (!shared.compareAndSet(top, top.next));
+    sharedCount.addAndGet(-top.count);
+    return top;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T cast(Object obj) {
+    return (T) obj;
+  }
+
+  static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (boolean) IS_VIRTUAL.invokeExact(thread);
+    } catch (Throwable e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static @Nullable MethodHandle findIsVirtual() {
+    try {
+      return MethodHandles.publicLookup()
+          .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  /** A node of the shared stack */
+  private static final class Batch {
+    final Object[] items;
+    final int count;
+    @Nullable Batch next;
+
+    Batch(Object[] items, int count) {
+      this.items = items;
+      this.count = count;
+    }
+  }
+
+  private static final class LocalCache {
+    final Object[] items;
+    int size = 0;
+
+    LocalCache(int capacity) {
+      items = new Object[capacity];
+    }
+
+    /** Only used by assertions */
+    boolean contains(Object obj) {
+      for (int i = 0; i < size; i++) {
+        if (items[i] == obj) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  public static <T> Builder<T> builder(Supplier<T> factory) {
+    return new Builder<>(factory);
+  }
+
+  public static class Builder<T> {
+    private final Supplier<T> factory;
+    private PooledObjectPolicy<T> policy = PooledObjectPolicy.none();
+    private int localCapacity = 64;
+
+    public Builder(Supplier<T> factory) {
+      this.factory = factory;
+    }
+
+    /** Lifecycle callbacks of the pooled objects */
+    public Builder<T> policy(PooledObjectPolicy<T> policy) {
+      this.policy = policy;
+      return this;
+    }
+
+    /** Capacity of the local cache of each platform thread */
+    public Builder<T> localCapacity(int localCapacity) {
+      this.localCapacity = localCapacity;
+      return this;
+    }
+
+    public ConcurrentObjectPool<T> build() {
+      if (factory == null) {
+        throw new IllegalStateException("Factory must be provided");
+      }
+      return new ConcurrentObjectPool<>(factory, policy, localCapacity);
+    }
+  }
+}
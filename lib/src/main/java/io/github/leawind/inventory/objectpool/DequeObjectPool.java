@@ -1,7 +1,10 @@
 package io.github.leawind.inventory.objectpool;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Object pool using a double-ended queue
@@ -11,15 +14,75 @@ import java.util.function.Supplier;
 public class DequeObjectPool<T> implements ObjectPool<T> {
   private final Supplier<T> factory;
 
+  private final PooledObjectPolicy<T> policy;
+
   private final ArrayDeque<T> queue;
 
+  /** See {@link #setMetricsEnabled(boolean)} */
+  private @Nullable PoolMetrics metrics = null;
+
+  private boolean metricsEnabled = false;
+
+  private @Nullable LeakDetector<T> leakDetector = null;
+
   public DequeObjectPool(Supplier<T> factory) {
     this(factory, 8);
   }
 
   public DequeObjectPool(Supplier<T> factory, int capacity) {
+    this(factory, capacity, PooledObjectPolicy.none());
+  }
+
+  public DequeObjectPool(Supplier<T> factory, int capacity, PooledObjectPolicy<T> policy) {
     queue = new ArrayDeque<>(capacity);
     this.factory = factory;
+    this.policy = policy;
+  }
+
+  /** Destroys all idle objects. */
+  public void clear() {
+    List<T> idle = new ArrayList<>(queue);
+    queue.clear();
+    if (metricsEnabled) {
+      metrics.recordDestroyed(idle.size());
+    }
+    policy.destroyAll(idle);
+  }
+
+  /**
+   * Enables or disables counting hits, misses, factory calls, the idle high-water mark and
+   * destroyed objects. This pool never expands nor shrinks explicitly.
+   *
+   * @return this pool (for chaining)
+   * @see StackObjectPool#setMetricsEnabled(boolean)
+   */
+  public DequeObjectPool<T> setMetricsEnabled(boolean enabled) {
+    if (enabled && metrics == null) {
+      metrics = new PoolMetrics();
+    }
+    metricsEnabled = enabled;
+    return this;
+  }
+
+  /** Returns whether metrics are enabled. */
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /** Returns the metrics collected so far, or null if they have never been enabled. */
+  public PoolMetrics.@Nullable Snapshot metricsSnapshot() {
+    return metrics == null ? null : metrics.snapshot();
+  }
+
+  /**
+   * Reports objects that are garbage collected without being released.
+   *
+   * @param leakDetector the detector, or null to stop detecting leaks
+   * @return this pool (for chaining)
+   */
+  public DequeObjectPool<T> setLeakDetector(@Nullable LeakDetector<T> leakDetector) {
+    this.leakDetector = leakDetector;
+    return this;
   }
 
   @Override
@@ -29,23 +92,64 @@ public class DequeObjectPool<T> implements ObjectPool<T> {
 
   @Override
   public ObjectPool<T> ensureIdle(int minSize) {
-    while (idleCount() < minSize) {
-      release(factory.get());
+    int missing = minSize - queue.size();
+    for (int i = 0; i < missing; i++) {
+      queue.add(factory.get());
+    }
+    if (metricsEnabled && missing > 0) {
+      metrics.recordPrefill(missing);
     }
     return this;
   }
 
   @Override
   public T acquire() {
-    var obj = queue.poll();
-    if (obj == null) {
-      obj = factory.get();
+    T obj;
+    while ((obj = queue.poll()) != null) {
+      if (policy.validate(obj)) {
+        if (metricsEnabled) {
+          metrics.recordHit();
+        }
+        if (leakDetector != null) {
+          leakDetector.onAcquire(obj);
+        }
+        return obj;
+      }
+      if (metricsEnabled) {
+        metrics.recordDestroyed(1);
+      }
+      policy.destroy(obj);
+    }
+    obj = factory.get();
+    if (metricsEnabled) {
+      metrics.recordMiss();
+    }
+    if (leakDetector != null) {
+      leakDetector.onAcquire(obj);
     }
     return obj;
   }
 
+  /** Only used by assertions, as it is linear in the idle count */
+  private boolean isIdle(T obj) {
+    for (T idle : queue) {
+      if (idle == obj) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void release(T obj) {
+    assert !isIdle(obj) : "Object released twice";
+    policy.reset(obj);
     queue.add(obj);
+    if (metricsEnabled) {
+      metrics.recordRelease(queue.size());
+    }
+    if (leakDetector != null) {
+      leakDetector.onRelease(obj);
+    }
   }
 }
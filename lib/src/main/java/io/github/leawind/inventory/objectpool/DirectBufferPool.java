@@ -0,0 +1,319 @@
+package io.github.leawind.inventory.objectpool;
+
+import io.github.leawind.inventory.misc.UncheckedCloseable;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Pool of direct {@link ByteBuffer}s, with one {@link StackObjectPool} per power-of-two size class
+ *
+ * <p>{@link #acquire(int)} rounds the requested size up to the next size class, and returns a
+ * buffer of that capacity whose limit is the requested size. {@link #release(ByteBuffer)} returns a
+ * buffer to the pool of its capacity. Requests larger than the largest class are allocated without
+ * pooling.
+ *
+ * <p>The capacity of each class follows its own peak idle count, see {@link StackObjectPool}. On
+ * top of that:
+ *
+ * <ul>
+ *   <li>{@link Builder#maxPooledBytes} caps the memory held by idle buffers. Buffers released
+ *       beyond it are dropped.
+ *   <li>{@link Builder#maxAllocatedBytes} caps the memory of all buffers allocated by this pool and
+ *       not dropped yet, idle or in use. When an allocation would exceed it, just enough idle
+ *       buffers are dropped first, largest classes first. If that is not enough, {@link
+ *       #acquire(int)} throws.
+ * </ul>
+ *
+ * <p>Only buffers acquired from this pool and not released yet can be released to it.
+ *
+ * <p>The limits count the buffers this pool still holds or has handed out. Dropped buffers no
+ * longer count as soon as they are dropped, but their native memory is only freed by the garbage
+ * collector, so the direct memory actually used by the process may briefly exceed {@link
+ * Builder#maxAllocatedBytes}. Use {@code -XX:MaxDirectMemorySize} for a hard limit.
+ *
+ * <p>All methods are synchronized.
+ */
+public class DirectBufferPool implements UncheckedCloseable {
+  private final int minClassShift;
+
+  /** Index {@code i} holds buffers of {@code 1 << (minClassShift + i)} bytes */
+  private final StackObjectPool<ByteBuffer>[] classes;
+
+  private final long maxPooledBytes;
+  private final long maxAllocatedBytes;
+
+  /** Bytes of buffers allocated by this pool and not dropped, both idle and in use */
+  private long allocatedBytes = 0;
+
+  /** Bytes of idle buffers */
+  private long pooledBytes = 0;
+
+  /** Buffers handed out by {@link #acquire(int)} and not released yet */
+  private final Set<ByteBuffer> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private DirectBufferPool(
+      int minClassShift,
+      int maxClassShift,
+      long maxPooledBytes,
+      long maxAllocatedBytes,
+      LongSupplier clock,
+      long idlePeriodNanos,
+      long peakWindowMillis) {
+    this.minClassShift = minClassShift;
+    this.maxPooledBytes = maxPooledBytes;
+    this.maxAllocatedBytes = maxAllocatedBytes;
+
+    StackObjectPool<ByteBuffer>[] pools = newPools(maxClassShift - minClassShift + 1);
+    for (int i = 0; i < pools.length; i++) {
+      int classSize = 1 << (minClassShift + i);
+      pools[i] =
+          StackObjectPool.builder(() -> allocate(classSize))
+              .policy(new BufferPolicy(classSize))
+              .clock(clock)
+              .idlePeriod(idlePeriodNanos, TimeUnit.NANOSECONDS)
+              .peakWindow(peakWindowMillis)
+              .build();
+    }
+    this.classes = pools;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static StackObjectPool<ByteBuffer>[] newPools(int length) {
+    return new StackObjectPool[length];
+  }
+
+  /**
+   * Returns a direct buffer with at least {@code size} bytes of capacity, position 0 and limit
+   * {@code size}. Its content is undefined.
+   *
+   * @throws IllegalStateException if the buffer would exceed {@link Builder#maxAllocatedBytes}
+   */
+  public synchronized ByteBuffer acquire(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must be >= 0");
+    }
+    int index = classIndex(size);
+    ByteBuffer buffer;
+    if (index >= classes.length) {
+      reserve(size);
+      buffer = allocate(size);
+    } else {
+      StackObjectPool<ByteBuffer> pool = classes[index];
+      if (pool.idleCount() > 0) {
+        pooledBytes -= classSize(index);
+      } else {
+        // Before the class pool calls its factory, as it must not be modified during acquire
+        reserve(classSize(index));
+      }
+      buffer = pool.acquire();
+    }
+    inUse.add(buffer);
+    return buffer.limit(size);
+  }
+
+  /**
+   * Returns a buffer acquired from this pool. The buffer must not be used afterwards.
+   *
+   * @throws IllegalArgumentException if the buffer was not acquired from this pool, or was already
+   *     released
+   */
+  public synchronized void release(ByteBuffer buffer) {
+    if (!inUse.remove(buffer)) {
+      throw new IllegalArgumentException("Not a buffer in use from this pool");
+    }
+    int capacity = buffer.capacity();
+    int index = classIndex(capacity);
+    if (index >= classes.length) {
+      allocatedBytes -= capacity;
+      return;
+    }
+    if (pooledBytes + capacity > maxPooledBytes) {
+      allocatedBytes -= capacity;
+      return;
+    }
+    classes[index].release(buffer);
+    pooledBytes += capacity;
+  }
+
+  /** Trims the pool of every size class, see {@link StackObjectPool#trim()}. */
+  public synchronized void trim() {
+    for (StackObjectPool<ByteBuffer> pool : classes) {
+      pool.trim();
+    }
+  }
+
+  /** Drops all idle buffers. */
+  public synchronized void clear() {
+    for (StackObjectPool<ByteBuffer> pool : classes) {
+      pool.clear();
+    }
+  }
+
+  /** Drops all idle buffers. Buffers in use can still be released afterwards. */
+  @Override
+  public void close() {
+    clear();
+  }
+
+  /** Returns the bytes of all buffers allocated by this pool and not dropped, idle or in use. */
+  public synchronized long allocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /** Returns the bytes of idle buffers. */
+  public synchronized long pooledBytes() {
+    return pooledBytes;
+  }
+
+  /** Returns the number of idle buffers of the size class that holds {@code size} bytes. */
+  public synchronized int idleCount(int size) {
+    int index = classIndex(size);
+    return index < classes.length ? classes[index].idleCount() : 0;
+  }
+
+  /** Returns the capacity of the buffers {@link #acquire(int)} returns for {@code size} bytes. */
+  public int classSizeOf(int size) {
+    int index = classIndex(size);
+    return index < classes.length ? classSize(index) : size;
+  }
+
+  private int classIndex(int size) {
+    int shift = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    return Math.max(0, shift - minClassShift);
+  }
+
+  private int classSize(int index) {
+    return 1 << (minClassShift + index);
+  }
+
+  /**
+   * Drops idle buffers until {@code capacity} more bytes fit in {@link Builder#maxAllocatedBytes}.
+   *
+   * @throws IllegalStateException if they still do not fit
+   */
+  private void reserve(int capacity) {
+    // Largest idle buffers first, they free the most memory per buffer
+    for (int i = classes.length - 1; i >= 0; i--) {
+      long excess = allocatedBytes + capacity - maxAllocatedBytes;
+      if (excess <= 0) {
+        return;
+      }
+      int classSize = classSize(i);
+      classes[i].evict((int) Math.min(Integer.MAX_VALUE, (excess + classSize - 1) / classSize));
+    }
+    if (allocatedBytes + capacity > maxAllocatedBytes) {
+      throw new IllegalStateException(
+          "Direct memory limit exceeded: "
+              + allocatedBytes
+              + " + "
+              + capacity
+              + " > "
+              + maxAllocatedBytes);
+    }
+  }
+
+  /** Factory of the class pools, called after {@link #reserve(int)}. */
+  private ByteBuffer allocate(int capacity) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+    allocatedBytes += capacity;
+    return buffer;
+  }
+
+  /** Keeps the accounting of buffers dropped by the pool of a size class */
+  private class BufferPolicy implements PooledObjectPolicy<ByteBuffer> {
+    private final int classSize;
+
+    BufferPolicy(int classSize) {
+      this.classSize = classSize;
+    }
+
+    @Override
+    public void reset(ByteBuffer buffer) {
+      buffer.clear();
+    }
+
+    @Override
+    public void destroy(ByteBuffer buffer) {
+      allocatedBytes -= classSize;
+      pooledBytes -= classSize;
+    }
+
+    @Override
+    public void destroyAll(List<ByteBuffer> buffers) {
+      allocatedBytes -= (long) classSize * buffers.size();
+      pooledBytes -= (long) classSize * buffers.size();
+    }
+  }
+
+  public static class Builder {
+    private int minClassSize = 4 << 10;
+    private int maxClassSize = 4 << 20;
+    private long maxPooledBytes = 64L << 20;
+    private long maxAllocatedBytes = Long.MAX_VALUE;
+    private LongSupplier clock = System::nanoTime;
+    private long idlePeriodNanos = TimeUnit.SECONDS.toNanos(60);
+    private long peakWindowMillis = 5000;
+
+    /** Smallest and largest size classes, powers of two. 4 KiB and 4 MiB by default */
+    public Builder sizeClasses(int minClassSize, int maxClassSize) {
+      if (Integer.bitCount(minClassSize) != 1 || Integer.bitCount(maxClassSize) != 1) {
+        throw new IllegalArgumentException("Size classes must be powers of two");
+      }
+      if (minClassSize > maxClassSize) {
+        throw new IllegalArgumentException("minClassSize must be <= maxClassSize");
+      }
+      this.minClassSize = minClassSize;
+      this.maxClassSize = maxClassSize;
+      return this;
+    }
+
+    /** Cap on the bytes of idle buffers. 64 MiB by default */
+    public Builder maxPooledBytes(long maxPooledBytes) {
+      this.maxPooledBytes = maxPooledBytes;
+      return this;
+    }
+
+    /** Cap on the bytes of all buffers allocated and not dropped. Unlimited by default */
+    public Builder maxAllocatedBytes(long maxAllocatedBytes) {
+      this.maxAllocatedBytes = maxAllocatedBytes;
+      return this;
+    }
+
+    /** See {@link StackObjectPool.Builder#clock} */
+    public Builder clock(LongSupplier nanoClock) {
+      this.clock = nanoClock;
+      return this;
+    }
+
+    /** See {@link StackObjectPool.Builder#idlePeriod}. 60 seconds by default */
+    public Builder idlePeriod(long idlePeriod, TimeUnit unit) {
+      this.idlePeriodNanos = unit.toNanos(idlePeriod);
+      return this;
+    }
+
+    /** See {@link StackObjectPool.Builder#peakWindow}. 5 seconds by default */
+    public Builder peakWindow(long window, TimeUnit unit) {
+      this.peakWindowMillis = unit.toMillis(window);
+      return this;
+    }
+
+    public DirectBufferPool build() {
+      if (maxPooledBytes < 0 || maxAllocatedBytes < 0) {
+        throw new IllegalStateException("Memory limits must be >= 0");
+      }
+      return new DirectBufferPool(
+          Integer.numberOfTrailingZeros(minClassSize),
+          Integer.numberOfTrailingZeros(maxClassSize),
+          maxPooledBytes,
+          maxAllocatedBytes,
+          clock,
+          idlePeriodNanos,
+          peakWindowMillis);
+    }
+  }
+}
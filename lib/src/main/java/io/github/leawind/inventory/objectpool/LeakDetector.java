@@ -0,0 +1,155 @@
+package io.github.leawind.inventory.objectpool;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reports pooled objects that are garbage collected without being released.
+ *
+ * <p>One acquisition out of {@code sampleInterval} is tracked: the acquire site is captured, and
+ * the object is watched through a {@link WeakReference} registered to a {@link ReferenceQueue},
+ * like {@link io.github.leawind.inventory.gcdetect.ReferenceQueueGcEventDetector}. Releasing the
+ * object stops tracking it. If it is collected first, the leak is reported by the next call to
+ * {@link #poll()}, which the pool makes on every tracked acquisition.
+ *
+ * <p>Capturing a stack trace is expensive, keep the sample interval large in production.
+ *
+ * <p>Not thread-safe, like the pools it is attached to.
+ *
+ * @param <T> the type of pooled objects
+ */
+public final class LeakDetector<T> {
+  private final int sampleInterval;
+  private final Consumer<Leak> reporter;
+
+  private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+  /** Tracked objects by identity hash code */
+  private final Map<Integer, Tracked<T>> tracked = new HashMap<>();
+
+  private int trackedCount = 0;
+  private int untilNextSample;
+
+  /**
+   * @param sampleInterval tracks one acquisition out of this many, 1 to track all of them
+   * @param reporter receives the leaks found by {@link #poll()}
+   */
+  public LeakDetector(int sampleInterval, Consumer<Leak> reporter) {
+    if (sampleInterval < 1) {
+      throw new IllegalArgumentException("sampleInterval must be >= 1");
+    }
+    this.sampleInterval = sampleInterval;
+    this.reporter = reporter;
+    this.untilNextSample = sampleInterval;
+  }
+
+  /** Called by the pool when it hands out an object. */
+  void onAcquire(T obj) {
+    if (--untilNextSample > 0) {
+      return;
+    }
+    untilNextSample = sampleInterval;
+    poll();
+
+    int hash = System.identityHashCode(obj);
+    Tracked<T> head = tracked.get(hash);
+    for (Tracked<T> t = head; t != null; t = t.nextSameHash) {
+      if (t.get() == obj) {
+        // Acquired again without being released, keep the first site
+        return;
+      }
+    }
+    Tracked<T> t =
+        new Tracked<>(obj, hash, obj.getClass().getName(), new Throwable("Acquired here"), queue);
+    t.nextSameHash = head;
+    tracked.put(hash, t);
+    trackedCount++;
+  }
+
+  /** Called by the pool when an object is released. */
+  void onRelease(T obj) {
+    if (trackedCount == 0) {
+      return;
+    }
+    int hash = System.identityHashCode(obj);
+    Tracked<T> t = tracked.get(hash);
+    while (t != null && t.get() != obj) {
+      t = t.nextSameHash;
+    }
+    if (t != null) {
+      untrack(t);
+      t.clear();
+    }
+  }
+
+  /**
+   * Reports the tracked objects that have been collected since the last call.
+   *
+   * @return the number of leaks reported
+   */
+  public int poll() {
+    int leaks = 0;
+    Reference<? extends T> ref;
+    while ((ref = queue.poll()) != null) {
+      @SuppressWarnings("unchecked")
+      Tracked<T> t = (Tracked<T>) ref;
+      untrack(t);
+      leaks++;
+      reporter.accept(new Leak(t.type, t.acquireSite));
+    }
+    return leaks;
+  }
+
+  /** Returns the number of acquired objects currently tracked. */
+  public int trackedCount() {
+    return trackedCount;
+  }
+
+  private void untrack(Tracked<T> target) {
+    Tracked<T> head = tracked.get(target.hash);
+    if (head == target) {
+      if (target.nextSameHash == null) {
+        tracked.remove(target.hash);
+      } else {
+        tracked.put(target.hash, target.nextSameHash);
+      }
+    } else {
+      Tracked<T> prev = head;
+      while (prev != null && prev.nextSameHash != target) {
+        prev = prev.nextSameHash;
+      }
+      if (prev == null) {
+        return;
+      }
+      prev.nextSameHash = target.nextSameHash;
+    }
+    trackedCount--;
+  }
+
+  /**
+   * A pooled object that was garbage collected while acquired.
+   *
+   * @param type class name of the object
+   * @param acquireSite its stack trace points to where the object was acquired
+   */
+  public record Leak(String type, Throwable acquireSite) {}
+
+  private static final class Tracked<T> extends WeakReference<T> {
+    final int hash;
+    final String type;
+    final Throwable acquireSite;
+    @Nullable Tracked<T> nextSameHash;
+
+    Tracked(T referent, int hash, String type, Throwable acquireSite, ReferenceQueue<T> queue) {
+      super(referent, queue);
+      this.hash = hash;
+      this.type = type;
+      this.acquireSite = acquireSite;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.leawind.inventory.objectpool;
+
+import io.github.leawind.inventory.misc.UncheckedCloseable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An object acquired from a pool, released back when the lease is closed.
+ *
+ * <pre>{@code
+ * try (var lease = pool.lease()) {
+ *   Cat cat = lease.get();
+ *   // ...
+ * }
+ * }</pre>
+ *
+ * <p>Closing a lease again does nothing. When assertions are enabled ({@code -ea}), it throws an
+ * {@link AssertionError} instead, as does {@link #get()} after closing.
+ *
+ * <p>A lease that does not escape the try-with-resources block is usually removed by escape
+ * analysis, so leasing allocates nothing once the JIT compiler has kicked in.
+ *
+ * @param <T> the type of the pooled object
+ * @see ObjectPool#lease()
+ */
+public final class Lease<T> implements UncheckedCloseable {
+  private final ObjectPool<T> pool;
+  private @Nullable T obj;
+
+  Lease(ObjectPool<T> pool, T obj) {
+    this.pool = pool;
+    this.obj = obj;
+  }
+
+  /** Returns the leased object. It must not be used after the lease is closed. */
+  public T get() {
+    T current = obj;
+    assert current != null : "Lease already closed";
+    return current;
+  }
+
+  /** Releases the object back to its pool. */
+  @Override
+  public void close() {
+    T current = obj;
+    if (current == null) {
+      assert false : "Lease already closed";
+      return;
+    }
+    obj = null;
+    pool.release(current);
+  }
+}
@@ -15,7 +15,8 @@ package io.github.leawind.inventory.objectpool;
  *       use.
  *   <li><strong>Object state:</strong> Objects obtained from the pool may contain residual state
  *       from previous use. Callers are responsible for fully initializing or resetting objects
- *       after {@link #acquire()} and before reuse.
+ *       after {@link #acquire()} and before reuse, unless the pool is given a {@link
+ *       PooledObjectPolicy} that resets them.
  *   <li><strong>Lifecycle discipline:</strong> Every acquired object should eventually be returned
  *       via {@link #release(Object)}. Failure to do so may lead to increased allocation or resource
  *       pressure.
@@ -73,9 +74,22 @@ public interface ObjectPool<T> {
    *   <li>The object should not be released more than once.
    * </ul>
    *
-   * <p>Violating these constraints results in undefined behavior.
+   * <p>Violating these constraints results in undefined behavior. When assertions are enabled
+   * ({@code -ea}), implementations may detect releasing an object that is already idle.
    *
    * @param obj the object to return to the pool
    */
   void release(T obj);
+
+  /**
+   * Acquires an object, to be released when the returned lease is closed.
+   *
+   * <p>Prefer this over pairing {@link #acquire()} and {@link #release(Object)} in a try/finally
+   * block.
+   *
+   * @return a lease of an object from the pool
+   */
+  default Lease<T> lease() {
+    return new Lease<>(this, acquire());
+  }
 }
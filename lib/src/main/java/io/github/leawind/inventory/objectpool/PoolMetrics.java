@@ -0,0 +1,111 @@
+package io.github.leawind.inventory.objectpool;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of an object pool, collected while its metrics are enabled.
+ *
+ * <p>Safe to read from another thread than the one using the pool. Read it through {@link
+ * #snapshot()}.
+ */
+public final class PoolMetrics {
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder factoryCalls = new LongAdder();
+  private final LongAdder releases = new LongAdder();
+  private final LongAccumulator highWater = new LongAccumulator(Long::max, 0);
+  private final LongAdder expands = new LongAdder();
+  private final LongAdder shrinks = new LongAdder();
+  private final LongAdder destroyed = new LongAdder();
+
+  PoolMetrics() {}
+
+  /** An idle object was handed out */
+  void recordHit() {
+    hits.increment();
+  }
+
+  /** No idle object was available, the factory was called */
+  void recordMiss() {
+    misses.increment();
+    factoryCalls.increment();
+  }
+
+  /** The factory was called to create idle objects ahead of time */
+  void recordPrefill(int count) {
+    factoryCalls.add(count);
+  }
+
+  void recordRelease(int idleCount) {
+    releases.increment();
+    highWater.accumulate(idleCount);
+  }
+
+  void recordExpand() {
+    expands.increment();
+  }
+
+  void recordShrink() {
+    shrinks.increment();
+  }
+
+  void recordDestroyed(int count) {
+    destroyed.add(count);
+  }
+
+  /**
+   * Returns the current numbers.
+   *
+   * <p>Counters are read one by one, so a snapshot taken while the pool is in use may be slightly
+   * inconsistent.
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(
+        hits.sum(),
+        misses.sum(),
+        factoryCalls.sum(),
+        releases.sum(),
+        highWater.get(),
+        expands.sum(),
+        shrinks.sum(),
+        destroyed.sum());
+  }
+
+  /**
+   * Counters of a pool at some point in time.
+   *
+   * @param hits acquisitions served by an idle object
+   * @param misses acquisitions that called the factory
+   * @param factoryCalls objects created, by misses and by prefilling
+   * @param releases objects released to the pool
+   * @param highWater largest idle count seen after a release
+   * @param expands times the backing storage grew
+   * @param shrinks times the backing storage shrank
+   * @param destroyed objects dropped by the pool, see {@link PooledObjectPolicy#destroy}
+   */
+  public record Snapshot(
+      long hits,
+      long misses,
+      long factoryCalls,
+      long releases,
+      long highWater,
+      long expands,
+      long shrinks,
+      long destroyed) {
+
+    /** Returns the fraction of acquisitions served by an idle object, or 0 if none. */
+    public double hitRate() {
+      long acquisitions = hits + misses;
+      return acquisitions == 0 ? 0 : (double) hits / acquisitions;
+    }
+
+    /**
+     * Returns how many more objects have been acquired than released. A value that keeps growing
+     * under a steady load suggests that some objects are never released.
+     */
+    public long outstanding() {
+      return hits + misses - releases;
+    }
+  }
+}
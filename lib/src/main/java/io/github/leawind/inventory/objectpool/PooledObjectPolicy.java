@@ -0,0 +1,51 @@
+package io.github.leawind.inventory.objectpool;
+
+import java.util.List;
+
+/**
+ * Lifecycle callbacks of the objects of a pool.
+ *
+ * <ul>
+ *   <li>{@link #reset} is called on {@link ObjectPool#release(Object)}, before the object becomes
+ *       idle.
+ *   <li>{@link #validate} is called on {@link ObjectPool#acquire()}, before an idle object is
+ *       handed out. Invalid objects are destroyed and the next one is tried.
+ *   <li>{@link #destroy} is called for every object the pool drops: failed validation, eviction,
+ *       shrinking and clearing. Objects that are never released are not destroyed by the pool.
+ * </ul>
+ *
+ * <p>All methods have no-op defaults.
+ *
+ * @param <T> the type of pooled objects
+ */
+public interface PooledObjectPolicy<T> {
+  /** Returns a policy that does nothing. */
+  static <T> PooledObjectPolicy<T> none() {
+    return new PooledObjectPolicy<>() {};
+  }
+
+  /** Clears the state left by the previous user. */
+  default void reset(T obj) {}
+
+  /**
+   * @return whether the idle object can still be handed out
+   */
+  default boolean validate(T obj) {
+    return true;
+  }
+
+  /** Frees the resources held by an object that leaves the pool. */
+  default void destroy(T obj) {}
+
+  /**
+   * Destroys objects dropped together, e.g. when the pool shrinks. The pool has already forgotten
+   * them when this is called.
+   *
+   * <p>Override to free resources in bulk.
+   */
+  default void destroyAll(List<T> objects) {
+    for (T obj : objects) {
+      destroy(obj);
+    }
+  }
+}
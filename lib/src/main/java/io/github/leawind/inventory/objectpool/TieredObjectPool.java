@@ -0,0 +1,196 @@
+package io.github.leawind.inventory.objectpool;
+
+import io.github.leawind.inventory.misc.UncheckedCloseable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Object pool with a small hot tier in front of a {@link StackObjectPool} cold tier
+ *
+ * <p>Released objects always go to the hot tier, and acquisitions are served from it first, most
+ * recently released first. Objects in short, frequent use therefore stay in the hot tier. When the
+ * hot tier is full, its least recently released half is moved to the cold tier, where objects
+ * that are needed only at peaks, or held for a long time, settle.
+ *
+ * <p>The hot tier has a fixed capacity. The cold tier is sized and trimmed on its own, see {@link
+ * StackObjectPool#trim()}, so its peak does not inflate the hot tier and vice versa.
+ *
+ * <p>Not thread-safe.
+ */
+public class TieredObjectPool<T> implements ObjectPool<T>, UncheckedCloseable {
+  private final PooledObjectPolicy<T> policy;
+
+  private final T[] hot;
+  private int hotSize = 0;
+
+  private final StackObjectPool<T> cold;
+
+  public TieredObjectPool(Supplier<T> factory) {
+    this(new Builder<>(factory));
+  }
+
+  private TieredObjectPool(Builder<T> builder) {
+    if (builder.hotCapacity < 2) {
+      throw new IllegalArgumentException("hotCapacity must be at least 2");
+    }
+    this.policy = builder.policy;
+
+    @SuppressWarnings("unchecked")
+    T[] hotArray = (T[]) new Object[builder.hotCapacity];
+    this.hot = hotArray;
+
+    StackObjectPool.Builder<T> coldBuilder = StackObjectPool.builder(builder.factory);
+    builder.coldConfigurer.accept(coldBuilder);
+    // Objects are reset once, when released to the hot tier
+    coldBuilder.policy(
+        new PooledObjectPolicy<>() {
+          @Override
+          public boolean validate(T obj) {
+            return policy.validate(obj);
+          }
+
+          @Override
+          public void destroy(T obj) {
+            policy.destroy(obj);
+          }
+
+          @Override
+          public void destroyAll(List<T> objects) {
+            policy.destroyAll(objects);
+          }
+        });
+    this.cold = coldBuilder.build();
+  }
+
+  @Override
+  public int idleCount() {
+    return hotSize + cold.idleCount();
+  }
+
+  /** Returns the number of idle objects in the hot tier. */
+  public int hotCount() {
+    return hotSize;
+  }
+
+  /** Returns the cold tier. */
+  public StackObjectPool<T> cold() {
+    return cold;
+  }
+
+  /** Fills the cold tier, leaving the hot tier to the objects actually in use. */
+  @Override
+  public ObjectPool<T> ensureIdle(int minSize) {
+    cold.ensureIdle(minSize - hotSize);
+    return this;
+  }
+
+  @Override
+  public T acquire() {
+    while (hotSize > 0) {
+      T obj = hot[--hotSize];
+      hot[hotSize] = null;
+      if (policy.validate(obj)) {
+        return obj;
+      }
+      policy.destroy(obj);
+    }
+    return cold.acquire();
+  }
+
+  @Override
+  public void release(T obj) {
+    assert !isHot(obj) : "Object released twice";
+    policy.reset(obj);
+    if (hotSize == hot.length) {
+      demote(hot.length / 2);
+    }
+    hot[hotSize++] = obj;
+  }
+
+  /** Trims the cold tier, see {@link StackObjectPool#trim()}. */
+  public void trim() {
+    cold.trim();
+  }
+
+  /** Destroys all idle objects of both tiers. */
+  public void clear() {
+    List<T> objects = new ArrayList<>(Arrays.asList(hot).subList(0, hotSize));
+    Arrays.fill(hot, 0, hotSize, null);
+    hotSize = 0;
+    policy.destroyAll(objects);
+    cold.clear();
+  }
+
+  /** Destroys all idle objects and stops the background trimmer of the cold tier, if any. */
+  @Override
+  public void close() {
+    clear();
+    cold.close();
+  }
+
+  /** Moves the {@code count} least recently released objects of the hot tier to the cold tier. */
+  private void demote(int count) {
+    for (int i = 0; i < count; i++) {
+      cold.release(hot[i]);
+    }
+    System.arraycopy(hot, count, hot, 0, hotSize - count);
+    Arrays.fill(hot, hotSize - count, hotSize, null);
+    hotSize -= count;
+  }
+
+  /** Only used by assertions */
+  private boolean isHot(T obj) {
+    for (int i = 0; i < hotSize; i++) {
+      if (hot[i] == obj) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public static <T> Builder<T> builder(Supplier<T> factory) {
+    return new Builder<>(factory);
+  }
+
+  public static class Builder<T> {
+    private final Supplier<T> factory;
+    private PooledObjectPolicy<T> policy = PooledObjectPolicy.none();
+    private int hotCapacity = 16;
+    private Consumer<StackObjectPool.Builder<T>> coldConfigurer = cold -> {};
+
+    public Builder(Supplier<T> factory) {
+      this.factory = factory;
+    }
+
+    /** Lifecycle callbacks of the pooled objects, applied by both tiers */
+    public Builder<T> policy(PooledObjectPolicy<T> policy) {
+      this.policy = policy;
+      return this;
+    }
+
+    /** Capacity of the hot tier. Keep it small enough for the objects to stay in cache */
+    public Builder<T> hotCapacity(int hotCapacity) {
+      this.hotCapacity = hotCapacity;
+      return this;
+    }
+
+    /**
+     * Configures the cold tier, e.g. its peak window, idle period and background trimmer. Its
+     * factory and policy are set by this builder.
+     */
+    public Builder<T> cold(Consumer<StackObjectPool.Builder<T>> coldConfigurer) {
+      this.coldConfigurer = coldConfigurer;
+      return this;
+    }
+
+    public TieredObjectPool<T> build() {
+      if (factory == null) {
+        throw new IllegalStateException("Factory must be provided");
+      }
+      return new TieredObjectPool<>(this);
+    }
+  }
+}
@@ -2,29 +2,57 @@ package io.github.leawind.inventory.windowpeak;
 
 import java.util.Arrays;
 
+/**
+ * Window maximum over a ring of fixed-size time buckets
+ *
+ * <p>Buckets older than the current one are kept as a two-stack max queue: the newer ones, with
+ * their running max, and the older ones, with their suffix maxima. When a bucket expires it is
+ * taken from the older part, which is rebuilt from the newer part once it runs empty. So {@link
+ * #peak()} is O(1), and advancing is amortized O(1) per bucket moved.
+ */
 public class BucketedWindowPeakEstimator implements WindowPeakEstimator {
 
   private final int[] buckets;
-  private final int bucketSize;
+  private final long bucketSize;
+
+  /**
+   * For each bucket of the older part, the max from it to the newest bucket of the older part.
+   * Indexed like {@link #buckets}.
+   */
+  private final int[] suffixMax;
+
+  /** Number of buckets in the older part, which starts right after the current bucket */
+  private int olderCount = 0;
+
+  /** Max of the newer part, the buckets between the older part and the current bucket */
+  private int newerMax = 0;
 
   private int currentBucket = 0;
-  private int lastTickTime = 0;
 
-  public BucketedWindowPeakEstimator(int windowSize, int bucketSize) {
+  /** Start of the current bucket, aligned to a multiple of the bucket size by the first record */
+  private long lastTickTime = 0;
+
+  private boolean started = false;
+
+  public BucketedWindowPeakEstimator(long windowSize, long bucketSize) {
     if (windowSize <= 0 || bucketSize <= 0) {
       throw new IllegalArgumentException("windowSize and bucketSize must be > 0");
     }
-    int count = (int) Math.ceil((double) windowSize / bucketSize);
+    long count = windowSize / bucketSize + (windowSize % bucketSize == 0 ? 0 : 1);
     if (count <= 0) {
       throw new IllegalArgumentException("bucket count must be > 0");
     }
+    if (count > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many buckets: " + count);
+    }
 
     this.bucketSize = bucketSize;
-    this.buckets = new int[count];
+    this.buckets = new int[(int) count];
+    this.suffixMax = new int[(int) count];
   }
 
   @Override
-  public void record(int sample, int now) {
+  public void record(int sample, long now) {
     advance(now);
 
     // store peak value
@@ -35,31 +63,65 @@ public class BucketedWindowPeakEstimator implements WindowPeakEstimator {
 
   @Override
   public int peak() {
-    int max = 0;
-    for (int v : buckets) {
-      if (v > max) max = v;
+    int max = Math.max(buckets[currentBucket], newerMax);
+    if (olderCount > 0) {
+      max = Math.max(max, suffixMax[next(currentBucket)]);
     }
     return max;
   }
 
   private void advance(long now) {
+    if (!started) {
+      lastTickTime = now - Math.floorMod(now, bucketSize);
+      started = true;
+      return;
+    }
     long elapsed = now - lastTickTime;
     if (elapsed < bucketSize) {
       return;
     }
 
-    int steps = (int) (elapsed / bucketSize);
-    int move = Math.min(steps, buckets.length);
+    long steps = elapsed / bucketSize;
 
-    for (int i = 0; i < move; i++) {
-      currentBucket = (currentBucket + 1) % buckets.length;
-      // clear outdated bucket
-      buckets[currentBucket] = 0;
+    if (steps >= buckets.length) {
+      // every bucket is outdated
+      Arrays.fill(buckets, 0);
+      olderCount = 0;
+      newerMax = 0;
+    } else {
+      for (int i = 0; i < (int) steps; i++) {
+        // the current bucket joins the newer part
+        newerMax = Math.max(newerMax, buckets[currentBucket]);
+        if (olderCount == 0) {
+          rebuildOlder();
+        }
+        // the oldest bucket expires and becomes the current one
+        currentBucket = next(currentBucket);
+        olderCount--;
+        buckets[currentBucket] = 0;
+      }
     }
 
     lastTickTime += steps * bucketSize;
   }
 
+  /** Moves all buckets but the current one to the older part, which is empty. */
+  private void rebuildOlder() {
+    int max = 0;
+    int i = currentBucket;
+    do {
+      max = Math.max(max, buckets[i]);
+      suffixMax[i] = max;
+      i = i == 0 ? buckets.length - 1 : i - 1;
+    } while (i != currentBucket);
+    olderCount = buckets.length;
+    newerMax = 0;
+  }
+
+  private int next(int bucket) {
+    return bucket + 1 == buckets.length ? 0 : bucket + 1;
+  }
+
   @Override
   public String toString() {
     return "BucketedWindowPeakEstimator{"
@@ -0,0 +1,150 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe window maximum over time buckets, for samples recorded from many threads
+ *
+ * <p>Same window as {@link BucketedWindowPeakEstimator}: the current bucket and the ones before it
+ * that fit in the window. Like {@link java.util.concurrent.atomic.LongAccumulator}, each thread
+ * records into one of several stripes, each with its own ring of buckets, and {@link #peak()}
+ * merges all of them. A thread whose update fails because another thread updated the same bucket
+ * moves to another stripe, so threads that record concurrently soon stop sharing buckets.
+ *
+ * <p>{@link #record(int, long)} is lock-free, and usually a single compare-and-set. {@link #peak()}
+ * reads every bucket of every stripe, which is bounded by {@code stripes * buckets}.
+ *
+ * <p>Each bucket is a single {@code long}, holding the sample and the low 32 bits of its bucket
+ * number. A bucket left untouched for 2^32 bucket periods may therefore be taken as current again.
+ */
+public class ConcurrentWindowPeakEstimator implements WindowPeakEstimator {
+  /** Longs between the rings of two stripes, so that they do not share cache lines */
+  private static final int PADDING = 8;
+
+  private static final ThreadLocal<Probe> PROBE = ThreadLocal.withInitial(Probe::new);
+
+  private final long bucketSize;
+  private final int bucketCount;
+
+  private final int stripeMask;
+
+  /** Distance between the rings of two consecutive stripes in {@link #buckets} */
+  private final int stride;
+
+  /** Bucket number in the high 32 bits, sample in the low 32 bits */
+  private final AtomicLongArray buckets;
+
+  /** Most recent bucket number recorded */
+  private final AtomicLong latestBucket = new AtomicLong(Long.MIN_VALUE);
+
+  public ConcurrentWindowPeakEstimator(long windowSize, long bucketSize) {
+    this(windowSize, bucketSize, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param stripes number of stripes, rounded up to a power of two
+   */
+  public ConcurrentWindowPeakEstimator(long windowSize, long bucketSize, int stripes) {
+    if (windowSize <= 0 || bucketSize <= 0) {
+      throw new IllegalArgumentException("windowSize and bucketSize must be > 0");
+    }
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("stripes must be in [1, 65536]");
+    }
+    long count = windowSize / bucketSize + (windowSize % bucketSize == 0 ? 0 : 1);
+    int stripeCount = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    long stride = ((count + PADDING - 1) & -PADDING) + PADDING;
+    if (stride * stripeCount > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Too many buckets: " + count + " * " + stripeCount);
+    }
+
+    this.bucketSize = bucketSize;
+    this.bucketCount = (int) count;
+    this.stripeMask = stripeCount - 1;
+    this.stride = (int) stride;
+    this.buckets = new AtomicLongArray((int) stride * stripeCount);
+  }
+
+  @Override
+  public void record(int value, long now) {
+    long bucket = Math.floorDiv(now, bucketSize);
+    advance(bucket);
+
+    int tag = (int) bucket;
+    int offset = (int) Math.floorMod(bucket, (long) bucketCount);
+    Probe probe = PROBE.get();
+    while (true) {
+      int index = (probe.hash & stripeMask) * stride + offset;
+      long current = buckets.get(index);
+      // Read after the bucket, so a bucket written by a newer record is known to be newer
+      if ((int) latestBucket.get() - tag >= bucketCount) {
+        // Out of the window
+        return;
+      }
+      // Bucket numbers sharing a slot are bucketCount apart, so a different one is outdated
+      if ((int) (current >>> 32) == tag && (int) current >= value) {
+        return;
+      }
+      if (buckets.compareAndSet(index, current, pack(tag, value))) {
+        return;
+      }
+      probe.rehash();
+    }
+  }
+
+  /** Returns the maximum sample of the window as of the most recent record, or 0 if none. */
+  @Override
+  public int peak() {
+    long latest = latestBucket.get();
+    if (latest == Long.MIN_VALUE) {
+      return 0;
+    }
+    int latestTag = (int) latest;
+    int max = 0;
+    for (int start = 0; start < buckets.length(); start += stride) {
+      for (int i = start; i < start + bucketCount; i++) {
+        long packed = buckets.get(i);
+        int age = latestTag - (int) (packed >>> 32);
+        if (age >= 0 && age < bucketCount) {
+          max = Math.max(max, (int) packed);
+        }
+      }
+    }
+    return max;
+  }
+
+  /** Moves the window forward to {@code bucket} if it is more recent. */
+  private void advance(long bucket) {
+    while (true) {
+      long latest = latestBucket.get();
+      if (latest != Long.MIN_VALUE && bucket - latest <= 0) {
+        return;
+      }
+      if (latestBucket.compareAndSet(latest, bucket)) {
+        return;
+      }
+    }
+  }
+
+  private static long pack(int tag, int value) {
+    return ((long) tag << 32) | (value & 0xFFFFFFFFL);
+  }
+
+  /** Selects the stripe of a thread */
+  private static final class Probe {
+    int hash = mix(System.identityHashCode(Thread.currentThread()));
+
+    void rehash() {
+      // xorshift
+      hash ^= hash << 13;
+      hash ^= hash >>> 17;
+      hash ^= hash << 5;
+    }
+
+    private static int mix(int seed) {
+      int h = seed * 0x9E3779B9;
+      return h == 0 ? 1 : h;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact sliding window maximum of {@code double} samples, with nanosecond timestamps.
+ *
+ * <p>Same deque as {@link MonotonicWindowPeakEstimator}, on the samples mapped to {@code long}s of
+ * the same order. {@link #record(double)} reads the clock of the estimator, {@link
+ * System#nanoTime()} by default, so callers do not need to convert or truncate timestamps.
+ * Timestamps are only compared by difference, so they may wrap around.
+ *
+ * <p>NaN samples are ignored, and {@code -0.0} is lower than {@code 0.0}.
+ *
+ * <p>Not thread-safe.
+ */
+public class DoubleWindowPeakEstimator {
+  private final MonotonicDeque deque;
+  private final LongSupplier clock;
+
+  public DoubleWindowPeakEstimator(long window, TimeUnit unit) {
+    this(window, unit, System::nanoTime);
+  }
+
+  /**
+   * @param nanoClock monotonic clock in nanoseconds
+   */
+  public DoubleWindowPeakEstimator(long window, TimeUnit unit, LongSupplier nanoClock) {
+    this.deque = new MonotonicDeque(unit.toNanos(window), 16);
+    this.clock = nanoClock;
+  }
+
+  /** Records a sample at the current time of the clock. */
+  public void record(double value) {
+    record(value, clock.getAsLong());
+  }
+
+  /** Records a sample at {@code nowNanos}, a time of the same clock as earlier samples. */
+  public void record(double value, long nowNanos) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    deque.record(toOrderedBits(value), nowNanos);
+  }
+
+  /** Returns the maximum sample of the window as of the last record, or -Infinity if none. */
+  public double peak() {
+    return deque.isEmpty() ? Double.NEGATIVE_INFINITY : fromOrderedBits(deque.peak());
+  }
+
+  /** Maps a double to a long, so that comparing the longs compares the doubles */
+  static long toOrderedBits(double value) {
+    long bits = Double.doubleToRawLongBits(value);
+    // Negative values: flip all bits but the sign, so that larger magnitudes are lower
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  static double fromOrderedBits(long ordered) {
+    return Double.longBitsToDouble(ordered ^ ((ordered >> 63) & Long.MAX_VALUE));
+  }
+}
@@ -0,0 +1,45 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact sliding window maximum of {@code long} samples, with nanosecond timestamps.
+ *
+ * <p>Same deque as {@link MonotonicWindowPeakEstimator}. {@link #record(long)} reads the clock of
+ * the estimator, {@link System#nanoTime()} by default, so callers do not need to convert or
+ * truncate timestamps. Timestamps are only compared by difference, so they may wrap around.
+ *
+ * <p>Not thread-safe.
+ */
+public class LongWindowPeakEstimator {
+  private final MonotonicDeque deque;
+  private final LongSupplier clock;
+
+  public LongWindowPeakEstimator(long window, TimeUnit unit) {
+    this(window, unit, System::nanoTime);
+  }
+
+  /**
+   * @param nanoClock monotonic clock in nanoseconds
+   */
+  public LongWindowPeakEstimator(long window, TimeUnit unit, LongSupplier nanoClock) {
+    this.deque = new MonotonicDeque(unit.toNanos(window), 16);
+    this.clock = nanoClock;
+  }
+
+  /** Records a sample at the current time of the clock. */
+  public void record(long value) {
+    deque.record(value, clock.getAsLong());
+  }
+
+  /** Records a sample at {@code nowNanos}, a time of the same clock as earlier samples. */
+  public void record(long value, long nowNanos) {
+    deque.record(value, nowNanos);
+  }
+
+  /** Returns the maximum sample of the window as of the last record, or MIN_VALUE if none. */
+  public long peak() {
+    return deque.isEmpty() ? Long.MIN_VALUE : deque.peak();
+  }
+}
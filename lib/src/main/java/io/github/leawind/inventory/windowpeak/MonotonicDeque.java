@@ -0,0 +1,95 @@
+package io.github.leawind.inventory.windowpeak;
+
+/**
+ * Monotonic deque of (time, value) samples, shared by the exact window peak estimators
+ *
+ * <p>Keeps the samples that may still become the peak, in decreasing order of value: a new sample
+ * evicts every older sample not greater than itself, and samples older than the window are evicted
+ * from the front. The front is therefore the maximum of the window.
+ *
+ * <p>Backed by primitive ring arrays, which only grow while the number of retained samples still
+ * increases. Timestamps are only compared by difference, so they may wrap around.
+ */
+final class MonotonicDeque {
+  private final long windowSize;
+
+  private long[] times;
+  private long[] values;
+
+  /** {@code times.length - 1}, the capacity being a power of two */
+  private int mask;
+
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * @param initialCapacity initial capacity, rounded up to a power of two
+   */
+  MonotonicDeque(long windowSize, int initialCapacity) {
+    if (windowSize < 0) {
+      throw new IllegalArgumentException("windowSize must be >= 0");
+    }
+    if (initialCapacity <= 0 || initialCapacity > 1 << 30) {
+      throw new IllegalArgumentException("initialCapacity must be in [1, 2^30]");
+    }
+    int capacity = Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1;
+    this.windowSize = windowSize;
+    this.times = new long[capacity];
+    this.values = new long[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /** Amortized O(1). */
+  void record(long value, long now) {
+    // Expired samples
+    while (size > 0 && now - times[head] > windowSize) {
+      head = (head + 1) & mask;
+      size--;
+    }
+
+    // Samples that can no longer be the peak
+    while (size > 0 && values[(head + size - 1) & mask] <= value) {
+      size--;
+    }
+
+    if (size == times.length) {
+      grow();
+    }
+    int tail = (head + size) & mask;
+    times[tail] = now;
+    values[tail] = value;
+    size++;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Returns the maximum value of the window as of the last record. Must not be empty. */
+  long peak() {
+    return values[head];
+  }
+
+  long windowSize() {
+    return windowSize;
+  }
+
+  private void grow() {
+    int capacity = times.length << 1;
+    long[] newTimes = new long[capacity];
+    long[] newValues = new long[capacity];
+    int first = times.length - head;
+    System.arraycopy(times, head, newTimes, 0, first);
+    System.arraycopy(times, 0, newTimes, first, head);
+    System.arraycopy(values, head, newValues, 0, first);
+    System.arraycopy(values, 0, newValues, first, head);
+    times = newTimes;
+    values = newValues;
+    mask = capacity - 1;
+    head = 0;
+  }
+}
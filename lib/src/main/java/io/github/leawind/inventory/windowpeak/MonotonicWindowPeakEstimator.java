@@ -0,0 +1,48 @@
+package io.github.leawind.inventory.windowpeak;
+
+/**
+ * Exact sliding window maximum
+ *
+ * <p>Keeps the samples that may still become the peak in a monotonic deque, see {@link
+ * MonotonicDeque}. {@link #record(int, long)} is amortized O(1) and {@link #peak()} is O(1), and
+ * nothing is allocated once the deque has reached its working size.
+ *
+ * <p>A sample recorded at {@code t} is in the window as long as {@code now - t <= windowSize}.
+ */
+public class MonotonicWindowPeakEstimator implements WindowPeakEstimator {
+  private final MonotonicDeque deque;
+
+  public MonotonicWindowPeakEstimator(long windowSize) {
+    this(windowSize, 16);
+  }
+
+  /**
+   * @param initialCapacity initial capacity of the deque, rounded up to a power of two
+   */
+  public MonotonicWindowPeakEstimator(long windowSize, int initialCapacity) {
+    this.deque = new MonotonicDeque(windowSize, initialCapacity);
+  }
+
+  @Override
+  public void record(int value, long now) {
+    deque.record(value, now);
+  }
+
+  /** Returns the maximum sample of the window as of the last record, or MIN_VALUE if none. */
+  @Override
+  public int peak() {
+    return deque.isEmpty() ? Integer.MIN_VALUE : (int) deque.peak();
+  }
+
+  @Override
+  public String toString() {
+    return "MonotonicWindowPeakEstimator{"
+        + "windowSize="
+        + deque.windowSize()
+        + ", size="
+        + deque.size()
+        + ", peak="
+        + peak()
+        + '}';
+  }
+}
@@ -1,17 +1,17 @@
 package io.github.leawind.inventory.windowpeak;
 
 public class SimpleWindowPeakEstimator implements WindowPeakEstimator {
-  private final int windowSize;
+  private final long windowSize;
 
   private int peak = Integer.MIN_VALUE;
   private long peakTime = 0;
 
-  public SimpleWindowPeakEstimator(int windowSize) {
+  public SimpleWindowPeakEstimator(long windowSize) {
     this.windowSize = windowSize;
   }
 
   @Override
-  public void record(int value, int now) {
+  public void record(int value, long now) {
     if (now - peakTime > windowSize) {
       peak = value;
       peakTime = now;
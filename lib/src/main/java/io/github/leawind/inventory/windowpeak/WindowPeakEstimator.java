@@ -1,7 +1,14 @@
 package io.github.leawind.inventory.windowpeak;
 
+/**
+ * Estimates the peak of {@code int} samples over a sliding time window.
+ *
+ * <p>Timestamps are {@code long} and only compared by difference, so {@link System#nanoTime()}
+ * values can be passed as they are. See {@link LongWindowPeakEstimator} and {@link
+ * DoubleWindowPeakEstimator} for wider samples and an injectable clock.
+ */
 public interface WindowPeakEstimator {
-  void record(int value, int now);
+  void record(int value, long now);
 
   int peak();
 }
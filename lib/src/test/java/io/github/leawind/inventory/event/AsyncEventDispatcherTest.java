@@ -0,0 +1,223 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncEventDispatcherTest {
+  private ExecutorService executor;
+  private ConcurrentEventEmitter<String> eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    eventEmitter = new ConcurrentEventEmitter<>();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private AsyncEventDispatcher dispatcher(AsyncEventDispatcher.Mode mode) {
+    return new AsyncEventDispatcher(executor, mode, 16);
+  }
+
+  @Test
+  void perListener_shouldRunTiersInPriorityOrder() throws Exception {
+    List<String> s = new CopyOnWriteArrayList<>();
+    CountDownLatch bothHighStarted = new CountDownLatch(2);
+
+    // Both listeners of the high tier must run at the same time, or this deadlocks
+    EventEmitter.Listener.Basic<String> high =
+        e -> {
+          bothHighStarted.countDown();
+          try {
+            assertTrue(bothHighStarted.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+          }
+          s.add("high");
+        };
+    eventEmitter.on(high, 2).on(high, 2).on(e -> s.add("low:" + e), 1);
+
+    eventEmitter
+        .emitAsync("x", dispatcher(AsyncEventDispatcher.Mode.PER_LISTENER))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of("high", "high", "low:x"), s);
+  }
+
+  @Test
+  void perTier_shouldInvokeListenersSequentially() throws Exception {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .on(e -> s.append('A'), 2)
+        .on(e -> s.append('B'), 2)
+        .on(e -> s.append('C'), 1)
+        .on(e -> s.append('D'), 1);
+
+    eventEmitter
+        .emitAsync(null, dispatcher(AsyncEventDispatcher.Mode.PER_TIER))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals("ABCD", s.toString());
+  }
+
+  @Test
+  void stop_shouldSkipLowerTiers() throws Exception {
+    for (AsyncEventDispatcher.Mode mode : AsyncEventDispatcher.Mode.values()) {
+      eventEmitter.clear();
+      AtomicInteger low = new AtomicInteger();
+      AtomicInteger high = new AtomicInteger();
+
+      eventEmitter
+          .on(
+              (e, ctrl) -> {
+                high.incrementAndGet();
+                ctrl.stop();
+              },
+              2)
+          .on(e -> high.incrementAndGet(), 2)
+          .on(e -> low.incrementAndGet(), 1);
+
+      eventEmitter.emitAsync(null, dispatcher(mode)).get(5, TimeUnit.SECONDS);
+
+      assertEquals(0, low.get(), mode.name());
+      assertEquals(mode == AsyncEventDispatcher.Mode.PER_TIER ? 1 : 2, high.get(), mode.name());
+    }
+  }
+
+  @Test
+  void once_shouldBeInvokedOnce() throws Exception {
+    AtomicInteger count = new AtomicInteger();
+    eventEmitter.once(count::incrementAndGet);
+
+    AsyncEventDispatcher dispatcher = dispatcher(AsyncEventDispatcher.Mode.PER_LISTENER);
+    CompletableFuture.allOf(
+            eventEmitter.emitAsync(null, dispatcher), eventEmitter.emitAsync(null, dispatcher))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  void exception_shouldFailFutureAndSkipLowerTiers() {
+    AtomicInteger low = new AtomicInteger();
+    eventEmitter
+        .on(
+            e -> {
+              throw new IllegalStateException("boom");
+            },
+            2)
+        .on(e -> low.incrementAndGet(), 1);
+
+    AsyncEventDispatcher dispatcher = dispatcher(AsyncEventDispatcher.Mode.PER_TIER);
+    ExecutionException e =
+        assertThrows(
+            ExecutionException.class,
+            () -> eventEmitter.emitAsync(null, dispatcher).get(5, TimeUnit.SECONDS));
+
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertEquals(0, low.get());
+    assertEquals(0, dispatcher.pendingEmissions());
+  }
+
+  @Test
+  void maxPendingEmissions_shouldBlockProducer() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    eventEmitter.on(
+        e -> {
+          try {
+            release.await();
+          } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+          }
+        });
+
+    AsyncEventDispatcher dispatcher =
+        new AsyncEventDispatcher(executor, AsyncEventDispatcher.Mode.PER_LISTENER, 1);
+    CompletableFuture<Void> first = eventEmitter.emitAsync(null, dispatcher);
+    assertEquals(1, dispatcher.pendingEmissions());
+
+    CountDownLatch secondDispatched = new CountDownLatch(1);
+    Thread producer =
+        new Thread(
+            () -> {
+              eventEmitter.emitAsync(null, dispatcher);
+              secondDispatched.countDown();
+            });
+    producer.start();
+
+    assertFalse(secondDispatched.await(100, TimeUnit.MILLISECONDS));
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    assertTrue(secondDispatched.await(5, TimeUnit.SECONDS));
+    producer.join();
+  }
+
+  @Test
+  void tryDispatch_atLimit_shouldRejectWithoutBlocking() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    eventEmitter.on(
+        e -> {
+          try {
+            release.await();
+          } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+          }
+        });
+
+    AsyncEventDispatcher dispatcher =
+        new AsyncEventDispatcher(executor, AsyncEventDispatcher.Mode.PER_LISTENER, 1);
+    CompletableFuture<Void> first = dispatcher.tryDispatch(eventEmitter, null);
+    CompletableFuture<Void> second = dispatcher.tryDispatch(eventEmitter, null);
+
+    ExecutionException e = assertThrows(ExecutionException.class, second::get);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertEquals(1, dispatcher.pendingEmissions());
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    dispatcher.tryDispatch(eventEmitter, null).get(5, TimeUnit.SECONDS);
+    assertEquals(0, dispatcher.pendingEmissions());
+  }
+
+  @Test
+  void directExecutor_withManyTiers_shouldNotGrowTheStack() throws Exception {
+    int tiers = 20_000;
+    AtomicInteger count = new AtomicInteger();
+    for (int i = 0; i < tiers; i++) {
+      eventEmitter.on(e -> count.incrementAndGet(), i);
+    }
+
+    for (AsyncEventDispatcher.Mode mode : AsyncEventDispatcher.Mode.values()) {
+      count.set(0);
+      new AsyncEventDispatcher(Runnable::run, mode, 1)
+          .dispatch(eventEmitter, null)
+          .get(5, TimeUnit.SECONDS);
+      assertEquals(tiers, count.get(), mode.name());
+    }
+  }
+
+  @Test
+  void constructor_withNonPositiveBound_shouldThrow() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AsyncEventDispatcher(executor, AsyncEventDispatcher.Mode.PER_TIER, 0));
+  }
+}
@@ -0,0 +1,91 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link ConcurrentEventEmitter} with an {@link EventEmitter} guarded by {@code
+ * synchronized}, with 1, 4 and 16 emitting threads.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class ConcurrentEventEmitterBenchmark {
+
+  @Param({"4", "64"})
+  private int listenerCount;
+
+  private EventEmitter<Object> synchronizedEmitter;
+  private ConcurrentEventEmitter<Object> concurrentEmitter;
+
+  private final Object event = new Object();
+
+  @Setup
+  public void setup() {
+    synchronizedEmitter = new EventEmitter<>();
+    concurrentEmitter = new ConcurrentEventEmitter<>();
+
+    for (int i = 0; i < listenerCount; i++) {
+      synchronizedEmitter.on(e -> Blackhole.consumeCPU(4), i % 4);
+      concurrentEmitter.on(e -> Blackhole.consumeCPU(4), i % 4);
+    }
+  }
+
+  private void emitSynchronized() {
+    synchronized (synchronizedEmitter) {
+      synchronizedEmitter.emit(event);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void synchronized_1() {
+    emitSynchronized();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void synchronized_4() {
+    emitSynchronized();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void synchronized_16() {
+    emitSynchronized();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void concurrent_1() {
+    concurrentEmitter.emit(event);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void concurrent_4() {
+    concurrentEmitter.emit(event);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void concurrent_16() {
+    concurrentEmitter.emit(event);
+  }
+}
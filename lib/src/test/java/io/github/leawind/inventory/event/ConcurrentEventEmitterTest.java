@@ -0,0 +1,201 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentEventEmitterTest {
+  private ConcurrentEventEmitter<Object> eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    eventEmitter = new ConcurrentEventEmitter<>();
+  }
+
+  // region Core Functional Tests
+
+  @Test
+  void testOnce() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .on(e -> s.append("A"))
+        .once(() -> s.append("B"))
+        .once(e -> s.append("C"))
+        .once("a key", e -> s.append("D"))
+        .once("a key", e -> s.append("E"));
+
+    eventEmitter.emit(null);
+    eventEmitter.emit(null);
+
+    assertEquals("ABCEA", s.toString());
+  }
+
+  @Test
+  void testPriority() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .on(e -> s.append('A'), 1)
+        .on(() -> s.append('B'), 2)
+        .on(e -> s.append('C'), 2)
+        .on(() -> s.append('D'), 1);
+
+    eventEmitter.emit(null);
+    assertEquals("BCAD", s.toString());
+  }
+
+  @Test
+  void testOff() {
+    StringBuilder s = new StringBuilder();
+
+    EventEmitter.Listener<Object> listenerA = eventEmitter.listener(e -> s.append("A"));
+
+    eventEmitter.on(listenerA);
+    eventEmitter.on("alice", e -> s.append("C"));
+    eventEmitter.on("bob", e -> s.append("D"));
+    eventEmitter.on("alice", e -> s.append("E"));
+
+    eventEmitter.emit(null);
+    assertEquals("ADE", s.toString());
+
+    s.setLength(0);
+    eventEmitter.off(listenerA).off("bob");
+
+    eventEmitter.emit(null);
+    assertEquals("E", s.toString());
+    assertFalse(eventEmitter.hasKey("bob"));
+  }
+
+  @Test
+  void testStopAndUnsubscribe() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .on(
+            (e, ctrl) -> {
+              s.append("A");
+              ctrl.unsubscribe();
+            },
+            2)
+        .on(
+            (e, ctrl) -> {
+              s.append("B");
+              ctrl.stop();
+            },
+            1)
+        .on(e -> s.append("C"));
+
+    eventEmitter.emit(null);
+    eventEmitter.emit(null);
+    assertEquals("ABB", s.toString());
+  }
+
+  @Test
+  void nullKey_shouldBehaveLikeMissingKey() {
+    assertFalse(eventEmitter.hasKey(null));
+    assertNull(eventEmitter.getListener(null));
+    assertThrows(IllegalArgumentException.class, () -> eventEmitter.on(null, e -> {}, 0));
+  }
+
+  // endregion
+
+  // region Concurrency Tests
+
+  @Test
+  void once_withConcurrentEmitters_shouldBeInvokedExactlyOnce() throws Exception {
+    int threads = 8;
+    int rounds = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < rounds; round++) {
+        AtomicInteger count = new AtomicInteger();
+        eventEmitter.once(count::incrementAndGet);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          futures.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    eventEmitter.emit(null);
+                    return null;
+                  }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+          future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, count.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void subscribe_whileEmitting_shouldNotLoseListeners() throws Exception {
+    int writers = 4;
+    int keysPerWriter = 500;
+    AtomicInteger running = new AtomicInteger(writers);
+    ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  while (running.get() > 0) {
+                    eventEmitter.emit(null);
+                  }
+                  return null;
+                }));
+      }
+      for (int w = 0; w < writers; w++) {
+        int writer = w;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int k = 0; k < keysPerWriter; k++) {
+                    eventEmitter.on(writer + ":" + k, () -> {}, k % 7);
+                    if (k % 2 == 1) {
+                      eventEmitter.off(writer + ":" + (k - 1));
+                    }
+                  }
+                  running.decrementAndGet();
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    AtomicInteger count = new AtomicInteger();
+    for (int w = 0; w < writers; w++) {
+      for (int k = 1; k < keysPerWriter; k += 2) {
+        String key = w + ":" + k;
+        assertTrue(eventEmitter.hasKey(key), key);
+        assertFalse(eventEmitter.hasKey(w + ":" + (k - 1)));
+        eventEmitter.on(key, count::incrementAndGet);
+      }
+    }
+    eventEmitter.emit(null);
+    assertEquals(writers * keysPerWriter / 2, count.get());
+  }
+
+  // endregion
+}
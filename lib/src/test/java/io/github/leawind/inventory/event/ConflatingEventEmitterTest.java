@@ -0,0 +1,212 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConflatingEventEmitterTest {
+  private record Change(String key, int value) {}
+
+  /** Runs submitted tasks only when asked to */
+  private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+  private List<Change> received;
+
+  @BeforeEach
+  void setUp() {
+    tasks.clear();
+    received = new CopyOnWriteArrayList<>();
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  @Test
+  void keyedBy_shouldDeliverLatestPerKeyInFirstEmitOrder() {
+    ConflatingEventEmitter<Change> emitter =
+        new ConflatingEventEmitter.Builder<Change>()
+            .keyedBy(Change::key)
+            .executor(tasks::add)
+            .build();
+    emitter.listeners().on(received::add);
+
+    emitter.emit(new Change("a", 1));
+    emitter.emit(new Change("b", 1));
+    emitter.emit(new Change("a", 2));
+    emitter.emit(new Change("a", 3));
+
+    assertEquals(1, tasks.size());
+    assertEquals(2, emitter.pendingCount());
+    assertEquals(2, emitter.conflatedCount());
+    assertTrue(received.isEmpty());
+
+    runTasks();
+    assertEquals(List.of(new Change("a", 3), new Change("b", 1)), received);
+    assertEquals(0, emitter.pendingCount());
+
+    emitter.emit(new Change("b", 2));
+    assertEquals(1, tasks.size());
+    runTasks();
+    assertEquals(new Change("b", 2), received.get(2));
+  }
+
+  @Test
+  void merge_shouldCombinePendingEvents() {
+    ConflatingEventEmitter<Integer> emitter =
+        new ConflatingEventEmitter.Builder<Integer>()
+            .merge(Integer::sum)
+            .executor(tasks::add)
+            .build();
+    List<Integer> sums = new CopyOnWriteArrayList<>();
+    emitter.listeners().on(sums::add);
+
+    for (int i = 1; i <= 10; i++) {
+      emitter.emit(i);
+    }
+    runTasks();
+
+    assertEquals(List.of(55), sums);
+  }
+
+  @Test
+  void flush_shouldDeliverOnCallingThread() {
+    ConflatingEventEmitter<Change> emitter =
+        new ConflatingEventEmitter.Builder<Change>().executor(tasks::add).build();
+    emitter.listeners().on(received::add);
+
+    emitter.emit(new Change("a", 1));
+    emitter.emit(new Change("b", 2));
+    emitter.flush();
+    assertEquals(List.of(new Change("b", 2)), received);
+
+    // The scheduled flush finds nothing left
+    runTasks();
+    assertEquals(1, received.size());
+  }
+
+  @Test
+  void emit_withDirectExecutor_shouldFlushOutsideItsMonitor() {
+    ConflatingEventEmitter<Change> emitter =
+        new ConflatingEventEmitter.Builder<Change>().executor(Runnable::run).build();
+    List<Boolean> heldLock = new CopyOnWriteArrayList<>();
+    emitter.listeners().on(change -> heldLock.add(Thread.holdsLock(emitter)));
+
+    emitter.emit(new Change("a", 1));
+    emitter.emit(new Change("a", 2));
+
+    // Holding it while flushing would invert the lock order against a concurrent flush()
+    assertEquals(List.of(false, false), heldLock);
+    assertEquals(0, emitter.pendingCount());
+  }
+
+  @Test
+  void emit_fromListenerWithDirectExecutor_shouldBeDeliveredByTheRunningFlush() {
+    ConflatingEventEmitter<Change> emitter =
+        new ConflatingEventEmitter.Builder<Change>()
+            .keyedBy(Change::key)
+            .executor(Runnable::run)
+            .build();
+    emitter
+        .listeners()
+        .on(
+            change -> {
+              received.add(change);
+              if (change.key().equals("a") && change.value() < 3) {
+                emitter.emit(new Change(change.key(), change.value() + 1));
+                emitter.emit(new Change("b" + change.value(), 0));
+              }
+            });
+
+    emitter.emit(new Change("a", 1));
+
+    assertEquals(
+        List.of(
+            new Change("a", 1),
+            new Change("a", 2),
+            new Change("b1", 0),
+            new Change("a", 3),
+            new Change("b2", 0)),
+        received);
+    assertEquals(0, emitter.pendingCount());
+
+    emitter.emit(new Change("c", 0));
+    assertEquals(new Change("c", 0), received.get(5));
+  }
+
+  @Test
+  void window_shouldLimitFlushRate() throws InterruptedException {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      ConflatingEventEmitter<Integer> emitter =
+          new ConflatingEventEmitter.Builder<Integer>()
+              .window(200, TimeUnit.MILLISECONDS, scheduler)
+              .build();
+      AtomicInteger flushes = new AtomicInteger();
+      List<Integer> values = new CopyOnWriteArrayList<>();
+      emitter
+          .listeners()
+          .on(
+              e -> {
+                flushes.incrementAndGet();
+                values.add(e);
+              });
+
+      long start = System.nanoTime();
+      for (int i = 0; i < 1000; i++) {
+        emitter.emit(i);
+      }
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!values.contains(999) && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertEquals(999, (int) values.get(values.size() - 1));
+      // One immediate flush, then at most one per window
+      assertTrue(flushes.get() <= 2 + elapsedMillis / 200, "flushes: " + flushes.get());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  void emit_whenRejected_shouldAllowRetry() {
+    boolean[] reject = {true};
+    ConflatingEventEmitter<Integer> emitter =
+        new ConflatingEventEmitter.Builder<Integer>()
+            .executor(
+                task -> {
+                  if (reject[0]) {
+                    throw new RejectedExecutionException();
+                  }
+                  tasks.add(task);
+                })
+            .build();
+
+    assertThrows(RejectedExecutionException.class, () -> emitter.emit(1));
+
+    reject[0] = false;
+    emitter.emit(2);
+    assertEquals(1, tasks.size());
+  }
+
+  @Test
+  void build_withoutExecutor_shouldThrow() {
+    assertThrows(IllegalStateException.class, () -> new ConflatingEventEmitter.Builder<>().build());
+  }
+}
@@ -0,0 +1,138 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DoubleEventEmitterTest {
+  private DoubleEventEmitter eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    eventEmitter = new DoubleEventEmitter();
+  }
+
+  @Test
+  void on_shouldReceiveEveryValueInOrder() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append("A").append(v)).on(v -> s.append("B").append(v));
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("A1.5B1.5A2.5B2.5", s.toString());
+  }
+
+  @Test
+  void noArgListener_shouldBeTriggered() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(() -> s.append("X"));
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("XX", s.toString());
+  }
+
+  @Test
+  void once_shouldBeTriggeredOnlyOnce() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v)).once(() -> s.append("-")).once(v -> s.append("!"));
+
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("1.5-!2.5", s.toString());
+    assertEquals(1, eventEmitter.size());
+  }
+
+  @Test
+  void once_withReentrantEmit_shouldNotBeTriggeredTwice() {
+    var s = new StringBuilder();
+
+    eventEmitter.once(
+        v -> {
+          s.append(v);
+          eventEmitter.emit(v + 1);
+        });
+    eventEmitter.emit(1.5);
+
+    assertEquals("1.5", s.toString());
+    assertFalse(eventEmitter.hasListeners());
+  }
+
+  @Test
+  void emit_shouldRemoveOnceListenersBeforeInvokingAny() {
+    var sizes = new ArrayList<Integer>();
+
+    eventEmitter.on(v -> sizes.add(eventEmitter.size()));
+    eventEmitter.once(v -> sizes.add(eventEmitter.size()));
+    eventEmitter.emit(1.5);
+
+    // Even the first listener, persistent, sees the one-time listener already removed
+    assertEquals(List.of(1, 1), sizes);
+  }
+
+  @Test
+  void off_duringEmit_shouldTakeEffectFromNextEmit() {
+    var s = new StringBuilder();
+    DoubleEventEmitter.Listener second = v -> s.append("B").append(v);
+
+    eventEmitter.on(v -> eventEmitter.off(second)).on(second);
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("B1.5", s.toString());
+  }
+
+  @Test
+  void off_shouldRemoveFirstRegistration() {
+    var s = new StringBuilder();
+    DoubleEventEmitter.Listener listener = v -> s.append(v);
+
+    eventEmitter.once(listener).on(listener).on(() -> s.append("-"));
+    eventEmitter.off(listener);
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("1.5-2.5-", s.toString());
+  }
+
+  @Test
+  void on_duringEmit_shouldTakeEffectFromNextEmit() {
+    var s = new StringBuilder();
+
+    eventEmitter.once(v -> eventEmitter.on(w -> s.append(w)));
+    eventEmitter.emit(1.5);
+    eventEmitter.emit(2.5);
+
+    assertEquals("2.5", s.toString());
+  }
+
+  @Test
+  void clear_shouldRemoveAllListeners() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v)).once(v -> s.append(v));
+    eventEmitter.clear();
+    eventEmitter.emit(1.5);
+
+    assertEquals("", s.toString());
+    assertFalse(eventEmitter.hasListeners());
+  }
+
+  @Test
+  void emit_shouldPassValueAndRemoveOnceListeners() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v).append(";")).once(() -> s.append("-"));
+    eventEmitter.emit(0.5);
+    eventEmitter.emit(Double.NaN);
+
+    assertEquals("0.5;-NaN;", s.toString());
+  }
+}
@@ -0,0 +1,75 @@
+package io.github.leawind.inventory.event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link EventBus} vs. a hand-made {@code HashMap<Class<?>, EventEmitter<?>>}, and publishing an
+ * event type that nobody listens to.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class EventBusBenchmark {
+
+  private final Integer event = 42;
+  private final Object unheardEvent = new Object();
+
+  private EventBus bus;
+  private Map<Class<?>, EventEmitter<?>> emitters;
+
+  private int sink;
+
+  @Setup
+  public void setup() {
+    bus = new EventBus();
+    emitters = new HashMap<>();
+
+    EventEmitter<Integer> emitter = new EventEmitter<>();
+    emitters.put(Integer.class, emitter);
+    emitters.put(String.class, new EventEmitter<String>());
+
+    for (int i = 0; i < 4; i++) {
+      emitter.on(e -> sink += e);
+      bus.channel(Integer.class).on(e -> sink += e);
+    }
+    bus.channel(String.class).on(e -> sink++);
+  }
+
+  @Benchmark
+  public int hashMap() {
+    @SuppressWarnings("unchecked")
+    EventEmitter<Object> emitter = (EventEmitter<Object>) emitters.get(event.getClass());
+    if (emitter != null) {
+      emitter.emit(event);
+    }
+    return sink;
+  }
+
+  @Benchmark
+  public int eventBus() {
+    bus.publish(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int eventBus_noListeners() {
+    bus.publish(unheardEvent);
+    return sink;
+  }
+}
@@ -0,0 +1,127 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EventBusTest {
+  private interface Named {}
+
+  private static class Base {}
+
+  private static class Derived extends Base implements Named {}
+
+  private EventBus bus;
+
+  @BeforeEach
+  void setUp() {
+    bus = new EventBus();
+  }
+
+  @Test
+  void publish_shouldReachExactTypeSupertypesAndInterfaces() {
+    List<String> s = new ArrayList<>();
+
+    bus.channel(Object.class).on(e -> s.add("Object"));
+    bus.channel(Base.class).on(e -> s.add("Base"));
+    bus.channel(Named.class).on(e -> s.add("Named"));
+    bus.channel(Derived.class).on(e -> s.add("Derived"));
+
+    bus.publish(new Derived());
+    assertEquals(List.of("Derived", "Named", "Base", "Object"), s);
+
+    s.clear();
+    bus.publish(new Base());
+    assertEquals(List.of("Base", "Object"), s);
+  }
+
+  @Test
+  void publish_shouldKeepPriorityAndOnceWithinChannel() {
+    StringBuilder s = new StringBuilder();
+
+    bus.channel(String.class).on(e -> s.append('A'), 1).once("b", e -> s.append('B'), 2);
+    bus.channel(String.class).on(e -> s.append('C'), 3);
+
+    bus.publish("x");
+    bus.publish("y");
+    assertEquals("CBACA", s.toString());
+  }
+
+  @Test
+  void stop_shouldSkipLessSpecificChannels() {
+    AtomicInteger count = new AtomicInteger(0);
+
+    bus.channel(Derived.class).on((e, ctrl) -> ctrl.stop());
+    bus.channel(Base.class).on(count::incrementAndGet);
+
+    bus.publish(new Derived());
+    assertEquals(0, count.get());
+
+    bus.publish(new Base());
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  void channel_createdAfterPublish_shouldReceiveLaterEvents() {
+    StringBuilder s = new StringBuilder();
+
+    bus.channel(Base.class).on(e -> s.append('B'));
+    bus.publish(new Derived());
+
+    bus.channel(Named.class).on(e -> s.append('N'));
+    bus.publish(new Derived());
+
+    assertEquals("BNB", s.toString());
+  }
+
+  @Test
+  void publish_withoutChannels_shouldDoNothing() {
+    bus.publish("x");
+    bus.publish(1);
+    assertFalse(bus.hasChannel(String.class));
+  }
+
+  @Test
+  void off_shouldRemoveKeyFromAllChannels() {
+    StringBuilder s = new StringBuilder();
+
+    bus.channel(Derived.class).on("k", e -> s.append('D'));
+    bus.channel(Base.class).on("k", e -> s.append('B'));
+    bus.channel(Base.class).on(e -> s.append('b'));
+
+    bus.off("k");
+    bus.publish(new Derived());
+    assertEquals("b", s.toString());
+  }
+
+  @Test
+  void clear_shouldRemoveAllListeners() {
+    AtomicInteger count = new AtomicInteger(0);
+
+    bus.channel(Object.class).on(count::incrementAndGet);
+    bus.clear();
+    bus.publish("x");
+
+    assertEquals(0, count.get());
+    assertTrue(bus.hasChannel(Object.class));
+  }
+
+  @Test
+  void keyMapFactory_shouldCreateMapPerChannel() {
+    EventBus weakBus = new EventBus(WeakHashMap::new);
+    StringBuilder s = new StringBuilder();
+
+    Object key = new Object();
+    weakBus.channel(String.class).on(key, e -> s.append('S'));
+    weakBus.channel(Object.class).on(key, e -> s.append('O'));
+
+    weakBus.publish("x");
+    assertEquals("SO", s.toString());
+    assertTrue(weakBus.channel(String.class).hasKey(key));
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Steady-state cost of a single emission with a preallocated event.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc}, {@code gc.alloc.rate.norm} is expected to be 0 B/op for
+ * every benchmark.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class EventEmitterAllocationBenchmark {
+
+  @Param({"1", "16"})
+  private int listenerCount;
+
+  private final Object event = new Object();
+
+  private EventEmitter<Object> noArgEmitter;
+  private EventEmitter<Object> basicEmitter;
+  private EventEmitter<Object> controlEmitter;
+  private ConcurrentEventEmitter<Object> concurrentEmitter;
+
+  private int sink;
+
+  @Setup
+  public void setup() {
+    noArgEmitter = new EventEmitter<>();
+    basicEmitter = new EventEmitter<>();
+    controlEmitter = new EventEmitter<>();
+    concurrentEmitter = new ConcurrentEventEmitter<>();
+
+    for (int i = 0; i < listenerCount; i++) {
+      noArgEmitter.on(() -> sink++, i % 4);
+      basicEmitter.on(e -> sink += e.hashCode(), i % 4);
+      // Stops the emission at the last listener
+      controlEmitter.on(
+          (e, ctrl) -> {
+            if (++sink % listenerCount == 0) {
+              ctrl.stop();
+            }
+          },
+          i % 4);
+      concurrentEmitter.on(e -> sink += e.hashCode(), i % 4);
+    }
+  }
+
+  @Benchmark
+  public int noArg() {
+    noArgEmitter.emit(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int basic() {
+    basicEmitter.emit(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int withControl() {
+    controlEmitter.emit(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int concurrent() {
+    concurrentEmitter.emit(event);
+    return sink;
+  }
+}
@@ -0,0 +1,105 @@
+package io.github.leawind.inventory.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Emitting a batch of events one by one vs. with {@code emitAll}.
+ *
+ * <p>Each invocation emits {@code batchSize} events, divide the score by {@code batchSize} for the
+ * per-event cost.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class EventEmitterBenchmark {
+
+  @Param({"1", "16", "256"})
+  private int batchSize;
+
+  @Param({"16"})
+  private int listenerCount;
+
+  private List<Integer> batch;
+
+  private EventEmitter<Integer> eventEmitter;
+  private EventEmitter<Integer> batchEventEmitter;
+  private SimpleEventEmitter<Integer> simpleEventEmitter;
+
+  private int sink;
+
+  @Setup
+  public void setup() {
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      batch.add(i);
+    }
+
+    eventEmitter = new EventEmitter<>();
+    batchEventEmitter = new EventEmitter<>();
+    simpleEventEmitter = new SimpleEventEmitter<>();
+
+    for (int i = 0; i < listenerCount; i++) {
+      eventEmitter.on(e -> sink += e, i % 4);
+      batchEventEmitter.on(
+          batchEventEmitter.batchListener(
+              (events, ctrl) -> {
+                for (int e : events) {
+                  sink += e;
+                }
+              }),
+          i % 4);
+      simpleEventEmitter.on(e -> sink += e);
+    }
+  }
+
+  @Benchmark
+  public int emitEach() {
+    for (Integer event : batch) {
+      eventEmitter.emit(event);
+    }
+    return sink;
+  }
+
+  @Benchmark
+  public int emitAll() {
+    eventEmitter.emitAll(batch);
+    return sink;
+  }
+
+  @Benchmark
+  public int emitAll_batchListeners() {
+    batchEventEmitter.emitAll(batch);
+    return sink;
+  }
+
+  @Benchmark
+  public int simpleEmitEach() {
+    for (Integer event : batch) {
+      simpleEventEmitter.emit(event);
+    }
+    return sink;
+  }
+
+  @Benchmark
+  public int simpleEmitAll() {
+    simpleEventEmitter.emitAll(batch);
+    return sink;
+  }
+}
@@ -2,9 +2,13 @@ package io.github.leawind.inventory.event;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -147,6 +151,326 @@ public class EventEmitterTest {
 
   // endregion
 
+  // region Snapshot Dispatch Tests
+
+  @Test
+  void on_duringEmit_shouldTakeEffectFromNextEmit() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.once(
+        () -> {
+          s.append("A");
+          eventEmitter.on(() -> s.append("B"), -1);
+        });
+
+    eventEmitter.emit(null);
+    assertEquals("A", s.toString());
+
+    eventEmitter.emit(null);
+    assertEquals("AB", s.toString());
+  }
+
+  @Test
+  void off_duringEmit_shouldSkipRemovedListener() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.on(
+        () -> {
+          s.append("A");
+          eventEmitter.off("b");
+        },
+        1);
+    eventEmitter.on("b", () -> s.append("B"));
+    eventEmitter.on(() -> s.append("C"));
+
+    eventEmitter.emit(null);
+    assertEquals("AC", s.toString());
+    assertFalse(eventEmitter.hasKey("b"));
+  }
+
+  @Test
+  void clear_duringEmit_shouldSkipRemainingListeners() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.on(
+        () -> {
+          s.append("A");
+          eventEmitter.clear();
+        },
+        1);
+    eventEmitter.on(() -> s.append("B"));
+
+    eventEmitter.emit(null);
+    eventEmitter.emit(null);
+    assertEquals("A", s.toString());
+  }
+
+  @Test
+  void once_withReentrantEmit_shouldBeInvokedOnce() {
+    AtomicInteger count = new AtomicInteger(0);
+
+    eventEmitter.once(
+        () -> {
+          count.incrementAndGet();
+          eventEmitter.emit(null);
+        });
+
+    eventEmitter.emit(null);
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  void off_afterRemovals_shouldKeepRemainingOrder() {
+    StringBuilder s = new StringBuilder();
+
+    for (int i = 0; i < 8; i++) {
+      char c = (char) ('a' + i);
+      eventEmitter.on(c, () -> s.append(c), i % 3);
+    }
+    eventEmitter.off('b').off('e');
+    eventEmitter.emit(null);
+    eventEmitter.off('c').off('h');
+
+    s.setLength(0);
+    eventEmitter.emit(null);
+    assertEquals("fadg", s.toString());
+  }
+
+  @Test
+  void stop_inReentrantEmit_shouldNotStopOuterEmit() {
+    List<String> s = new ArrayList<>();
+
+    eventEmitter.on(
+        (e, ctrl) -> {
+          if (e.equals("outer")) {
+            eventEmitter.emit("inner");
+          }
+        },
+        2);
+    eventEmitter.on(
+        (e, ctrl) -> {
+          s.add("B:" + e);
+          if (e.equals("inner")) {
+            ctrl.stop();
+          }
+        },
+        1);
+    eventEmitter.on(e -> s.add("C:" + e), 0);
+
+    eventEmitter.emit("outer");
+    assertEquals(List.of("B:inner", "B:outer", "C:outer"), s);
+  }
+
+  @Test
+  void emit_afterListenerThrows_shouldNotKeepControlState() {
+    AtomicInteger count = new AtomicInteger(0);
+    boolean[] fail = {true};
+
+    eventEmitter.on(
+        (e, ctrl) -> {
+          if (fail[0]) {
+            ctrl.stop();
+            throw new IllegalStateException();
+          }
+        },
+        1);
+    eventEmitter.on(count::incrementAndGet);
+
+    assertThrows(IllegalStateException.class, () -> eventEmitter.emit(null));
+    fail[0] = false;
+    eventEmitter.emit(null);
+    assertEquals(1, count.get());
+  }
+
+  // endregion
+
+  // region Subscription Index Tests
+
+  @Test
+  void on_afterTierEmptied_shouldInsertBetweenRemainingTiers() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.on(() -> s.append('A'), 3);
+    eventEmitter.on('b', () -> s.append('B'), 2);
+    eventEmitter.on(() -> s.append('C'), 1);
+    eventEmitter.off('b');
+
+    eventEmitter.on(() -> s.append('D'), 2);
+    eventEmitter.on(() -> s.append('E'), 4);
+    eventEmitter.on(() -> s.append('F'), 2);
+    eventEmitter.on(() -> s.append('G'), 0);
+
+    eventEmitter.emit(null);
+    assertEquals("EADFCG", s.toString());
+  }
+
+  @Test
+  void off_tierTailOrMiddle_shouldKeepInsertionPointOfTier() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.on(() -> s.append('A'), 2);
+    eventEmitter.on('b', () -> s.append('B'), 2);
+    eventEmitter.on('c', () -> s.append('C'), 2);
+    eventEmitter.on(() -> s.append('Z'), 1);
+
+    // Not the last of its tier
+    eventEmitter.off('b');
+    eventEmitter.on(() -> s.append('D'), 2);
+    // The last of its tier
+    eventEmitter.off(eventEmitter.subscriptions.get(2).listener);
+    eventEmitter.on(() -> s.append('E'), 2);
+
+    eventEmitter.emit(null);
+    assertEquals("ACEZ", s.toString());
+  }
+
+  @Test
+  void off_withDuplicateListener_shouldRemoveHighestPriorityFirst() {
+    StringBuilder s = new StringBuilder();
+
+    EventEmitter.Listener<Object> listener = eventEmitter.listener(e -> s.append('L'));
+    eventEmitter.on(listener, 1).on(listener, 3);
+    eventEmitter.on(() -> s.append('X'), 2);
+
+    eventEmitter.off(listener);
+    eventEmitter.emit(null);
+    assertEquals("XL", s.toString());
+    assertEquals(2, eventEmitter.subscriptions.size());
+
+    eventEmitter.off(listener).off(listener);
+    s.setLength(0);
+    eventEmitter.emit(null);
+    assertEquals("X", s.toString());
+    assertEquals(1, eventEmitter.subscriptions.size());
+  }
+
+  @Test
+  void subscriptions_shouldBeReadOnlyViewInDispatchOrder() {
+    List<EventEmitter.Subscription<Object>> view = eventEmitter.subscriptions;
+    eventEmitter.on("low", () -> {}, 1).on("high", () -> {}, 2);
+
+    assertEquals(List.of("high", "low"), view.stream().map(sub -> sub.getKey()).toList());
+    assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+
+    eventEmitter.off("high");
+    assertEquals(1, view.size());
+    assertEquals("low", view.get(0).getKey());
+  }
+
+  @Test
+  void off_manyKeys_shouldKeepDispatchOrder() {
+    List<Integer> s = new ArrayList<>();
+
+    for (int i = 0; i < 1000; i++) {
+      int id = i;
+      eventEmitter.on(id, () -> s.add(id), -(id % 10));
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      eventEmitter.off(i);
+    }
+    assertEquals(500, eventEmitter.subscriptions.size());
+
+    eventEmitter.emit(null);
+    assertEquals(500, s.size());
+    for (int i = 1; i < s.size(); i++) {
+      int prev = s.get(i - 1);
+      int curr = s.get(i);
+      assertTrue(prev % 10 < curr % 10 || (prev % 10 == curr % 10 && prev < curr));
+    }
+  }
+
+  // endregion
+
+  // region Batch Emission Tests
+
+  @Test
+  void emitAll_shouldWalkListenersOnce() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.on(e -> s.append("A").append(e), 2).on(e -> s.append("B").append(e), 1);
+
+    eventEmitter.emitAll(List.of(1, 2));
+    assertEquals("A1A2B1B2", s.toString());
+  }
+
+  @Test
+  void emitAll_batchListener_shouldReceiveWholeBatch() {
+    List<List<Object>> batches = new ArrayList<>();
+
+    eventEmitter.on(eventEmitter.batchListener((events, ctrl) -> batches.add(List.copyOf(events))));
+
+    eventEmitter.emitAll(List.of(1, 2, 3));
+    eventEmitter.emit(4);
+
+    assertEquals(List.of(List.of(1, 2, 3), List.of(4)), batches);
+  }
+
+  @Test
+  void emitAll_stopByPerEventListener_shouldOnlyStopThatEvent() {
+    StringBuilder s = new StringBuilder();
+    List<List<Object>> batches = new ArrayList<>();
+
+    eventEmitter
+        .on(
+            (e, ctrl) -> {
+              if (e.equals(2)) {
+                ctrl.stop();
+              }
+            },
+            2)
+        .on(e -> s.append(e), 1)
+        .on(eventEmitter.batchListener((events, ctrl) -> batches.add(List.copyOf(events))));
+
+    eventEmitter.emitAll(List.of(1, 2, 3));
+
+    assertEquals("13", s.toString());
+    assertEquals(List.of(List.of(1, 3)), batches);
+  }
+
+  @Test
+  void emitAll_stopByBatchListener_shouldStopWholeBatch() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .on(eventEmitter.batchListener((events, ctrl) -> ctrl.stop()), 1)
+        .on(e -> s.append(e));
+
+    eventEmitter.emitAll(List.of(1, 2, 3));
+
+    assertEquals("", s.toString());
+  }
+
+  @Test
+  void emitAll_onceAndUnsubscribe_shouldSkipRemainingEvents() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter
+        .once(e -> s.append("A").append(e))
+        .on(
+            (e, ctrl) -> {
+              s.append("B").append(e);
+              if (e.equals(2)) {
+                ctrl.unsubscribe();
+              }
+            });
+
+    eventEmitter.emitAll(List.of(1, 2, 3));
+    eventEmitter.emitAll(List.of(4));
+
+    assertEquals("A1B1B2", s.toString());
+  }
+
+  @Test
+  void emitAll_withEmptyBatch_shouldNotInvokeListeners() {
+    AtomicInteger count = new AtomicInteger();
+    eventEmitter.once(count::incrementAndGet);
+
+    eventEmitter.emitAll(List.of());
+    assertEquals(0, count.get());
+  }
+
+  // endregion
+
   // region Memory Management & Weak Reference Tests
 
   @Disabled
@@ -176,6 +500,32 @@ public class EventEmitterTest {
     assertFalse(eventEmitter.hasKey(keyTracker.get()));
   }
 
+  @Test
+  void weakKeyMap_collectedKey_shouldRemoveSubscription() throws InterruptedException {
+    EventEmitter<Object> weakEmitter = new EventEmitter<>(new WeakHashMap<>());
+    AtomicInteger executionCount = new AtomicInteger(0);
+
+    Object key = new Object();
+    weakEmitter.on(key, e -> executionCount.incrementAndGet());
+    weakEmitter.on(e -> {});
+
+    key = null;
+
+    long startTime = System.currentTimeMillis();
+    do {
+      if (System.currentTimeMillis() - startTime > 2000) {
+        fail("Subscription was not removed within the timeout period.");
+      }
+      System.gc();
+      Thread.sleep(10);
+
+      executionCount.set(0);
+      weakEmitter.emit(null);
+    } while (executionCount.get() != 0);
+
+    assertEquals(1, weakEmitter.subscriptions.size());
+  }
+
   @Test
   void testWeakKeySurvivesWhenStronglyReferenced() {
     AtomicInteger executionCount = new AtomicInteger(0);
@@ -191,6 +541,214 @@ public class EventEmitterTest {
 
   // endregion
 
+  // region Metrics Tests
+
+  @Test
+  void metrics_shouldCountInvocationsExceptionsAndStops() {
+    EventEmitter.Listener<Object> stopper =
+        (e, ctrl) -> {
+          if (e != null) {
+            ctrl.stop();
+          }
+        };
+    EventEmitter.Listener<Object> thrower =
+        (e, ctrl) -> {
+          throw new IllegalStateException();
+        };
+
+    eventEmitter.setMetricsEnabled(true);
+    eventEmitter.on(stopper, 1).on("thrower", thrower);
+
+    eventEmitter.emit("stop");
+    eventEmitter.emit("stop");
+    assertThrows(IllegalStateException.class, () -> eventEmitter.emit(null));
+
+    List<ListenerMetrics.Snapshot> snapshots = eventEmitter.metricsSnapshot();
+    assertEquals(2, snapshots.size());
+
+    ListenerMetrics.Snapshot first = snapshots.get(0);
+    assertSame(stopper, first.listener());
+    assertNull(first.key());
+    assertEquals(3, first.invocations());
+    assertEquals(2, first.stops());
+    assertEquals(0, first.exceptions());
+    assertTrue(first.maxNanos() <= first.totalNanos());
+
+    ListenerMetrics.Snapshot second = snapshots.get(1);
+    assertEquals("thrower", second.key());
+    assertEquals(1, second.invocations());
+    assertEquals(1, second.exceptions());
+  }
+
+  @Test
+  void metrics_whenDisabled_shouldKeepNumbersAndStopCounting() {
+    eventEmitter.on(() -> {});
+    assertTrue(eventEmitter.metricsSnapshot().isEmpty());
+
+    eventEmitter.setMetricsEnabled(true);
+    eventEmitter.emit(null);
+    eventEmitter.setMetricsEnabled(false);
+    eventEmitter.emit(null);
+
+    assertFalse(eventEmitter.isMetricsEnabled());
+    assertEquals(1, eventEmitter.metricsSnapshot().get(0).invocations());
+  }
+
+  @Test
+  void metrics_shouldCoverBatchListeners() {
+    eventEmitter.setMetricsEnabled(true);
+    eventEmitter.on(eventEmitter.batchListener((events, ctrl) -> {})).on(e -> {});
+
+    eventEmitter.emitAll(List.of("a", "b", "c"));
+
+    List<ListenerMetrics.Snapshot> snapshots = eventEmitter.metricsSnapshot();
+    assertEquals(1, snapshots.get(0).invocations());
+    assertEquals(3, snapshots.get(1).invocations());
+  }
+
+  // endregion
+
+  // region Filtered Subscription Tests
+
+  private record Keyed(String kind, int value) {}
+
+  @Test
+  void onMatch_shouldOnlyInvokeListenersOfTheEventDiscriminant() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter
+        .onMatch("a", e -> s.append("A").append(e.value()), 0)
+        .onMatch("b", e -> s.append("B").append(e.value()), 0);
+
+    emitter.emit(new Keyed("a", 1));
+    emitter.emit(new Keyed("b", 2));
+    emitter.emit(new Keyed("c", 3));
+
+    assertEquals("A1B2", s.toString());
+  }
+
+  @Test
+  void onMatch_shouldKeepPriorityOrderWithUndiscriminatedListeners() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter
+        .on(e -> s.append("1"), 1)
+        .onMatch("a", e -> s.append("3"), 3)
+        .on(e -> s.append("2"), 2)
+        .onMatch("a", e -> s.append("0"), 0)
+        .onMatch("b", e -> s.append("X"), 5)
+        .on(e -> s.append("4"), 4);
+
+    emitter.emit(new Keyed("a", 0));
+    assertEquals("43210", s.toString());
+
+    s.setLength(0);
+    emitter.emit(new Keyed("c", 0));
+    assertEquals("421", s.toString());
+  }
+
+  @Test
+  void onMatch_stop_shouldStopLowerPriorityListenersOfTheGroup() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter
+        .onMatch("a", (e, ctrl) -> ctrl.stop(), 2)
+        .on(e -> s.append("1"), 1)
+        .onMatch("b", e -> s.append("B"), 0);
+
+    emitter.emit(new Keyed("a", 0));
+    emitter.emit(new Keyed("b", 0));
+    assertEquals("1B", s.toString());
+  }
+
+  @Test
+  void onMatch_nullEvent_shouldOnlyReachUndiscriminatedListeners() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter
+        .onMatch("a", e -> s.append("A"), 2)
+        .onMatch(null, e -> s.append("N"), 1)
+        .on(e -> s.append(e == null ? "-" : "+"), 0);
+
+    emitter.emit(null);
+    // emitAll runs each listener over the whole batch
+    emitter.emitAll(Arrays.asList(null, new Keyed("a", 0)));
+    assertEquals("-A-+", s.toString());
+  }
+
+  @Test
+  void onMatch_withKey_shouldReplaceAndRemove() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter.onMatch("k", "a", (e, ctrl) -> s.append("A"), 0);
+    emitter.onMatch("k", "b", (e, ctrl) -> s.append("B"), 0);
+
+    emitter.emit(new Keyed("a", 0));
+    emitter.emit(new Keyed("b", 0));
+    emitter.off("k");
+    emitter.emit(new Keyed("b", 0));
+
+    assertEquals("B", s.toString());
+  }
+
+  @Test
+  void onMatch_withoutDiscriminator_shouldThrow() {
+    assertThrows(IllegalStateException.class, () -> eventEmitter.onMatch("a", e -> {}, 0));
+  }
+
+  @Test
+  void onIf_shouldOnlyInvokeListenerForAcceptedEvents() {
+    StringBuilder s = new StringBuilder();
+
+    eventEmitter.onIf(e -> (Integer) e > 1, e -> s.append(e), 0).on(e -> s.append("-"), 1);
+
+    eventEmitter.emit(1);
+    eventEmitter.emit(2);
+    assertEquals("--2", s.toString());
+  }
+
+  @Test
+  void emitAll_shouldApplyDiscriminantsAndFilters() {
+    EventEmitter<Keyed> emitter = new EventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+    List<List<Integer>> batches = new ArrayList<>();
+
+    emitter
+        .onMatch("a", e -> s.append("A").append(e.value()), 0)
+        .onIf(e -> e.value() > 1, e -> s.append("F").append(e.value()), 0)
+        .onMatch(
+            "b",
+            emitter.batchListener(
+                (events, ctrl) -> batches.add(events.stream().map(Keyed::value).toList())),
+            0);
+
+    emitter.emitAll(List.of(new Keyed("a", 1), new Keyed("b", 2), new Keyed("a", 3)));
+    emitter.emitAll(List.of(new Keyed("a", 4)));
+
+    assertEquals("A1A3F2F3A4F4", s.toString());
+    assertEquals(List.of(List.of(2)), batches);
+  }
+
+  @Test
+  void concurrentEmitter_onMatch_shouldDispatchByDiscriminant() {
+    EventEmitter<Keyed> emitter = new ConcurrentEventEmitter<>(Keyed::kind);
+    StringBuilder s = new StringBuilder();
+
+    emitter.onMatch("a", e -> s.append("A"), 0).onMatch("b", e -> s.append("B"), 0);
+    emitter.emit(new Keyed("b", 0));
+    emitter.off("missing");
+    emitter.emit(new Keyed("a", 0));
+
+    assertEquals("BA", s.toString());
+  }
+
+  // endregion
+
   // region Custom Map Injection Tests
 
   @Test
@@ -0,0 +1,79 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Listeners interested in one kind of event: checking the kind in every listener vs. {@link
+ * EventEmitter#onIf} vs. {@link EventEmitter#onMatch}.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class FilteredDispatchBenchmark {
+  private record Event(int kind) {}
+
+  @Param({"4", "32"})
+  private int kinds;
+
+  private final Event event = new Event(1);
+
+  private EventEmitter<Event> checkInListener;
+  private EventEmitter<Event> predicate;
+  private EventEmitter<Event> discriminated;
+
+  private int sink;
+
+  @Setup
+  public void setup() {
+    checkInListener = new EventEmitter<>();
+    predicate = new EventEmitter<>();
+    discriminated = new EventEmitter<>(Event::kind);
+
+    for (int kind = 0; kind < kinds; kind++) {
+      int k = kind;
+      for (int i = 0; i < 2; i++) {
+        checkInListener.on(
+            e -> {
+              if (e.kind() == k) {
+                sink++;
+              }
+            });
+        predicate.onIf(e -> e.kind() == k, e -> sink++, 0);
+        discriminated.onMatch(k, e -> sink++, 0);
+      }
+    }
+  }
+
+  @Benchmark
+  public int checkInListener() {
+    checkInListener.emit(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int onIf() {
+    predicate.emit(event);
+    return sink;
+  }
+
+  @Benchmark
+  public int onMatch() {
+    discriminated.emit(event);
+    return sink;
+  }
+}
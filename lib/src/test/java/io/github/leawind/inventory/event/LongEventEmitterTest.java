@@ -0,0 +1,138 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LongEventEmitterTest {
+  private LongEventEmitter eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    eventEmitter = new LongEventEmitter();
+  }
+
+  @Test
+  void on_shouldReceiveEveryValueInOrder() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append("A").append(v)).on(v -> s.append("B").append(v));
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("A1B1A2B2", s.toString());
+  }
+
+  @Test
+  void noArgListener_shouldBeTriggered() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(() -> s.append("X"));
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("XX", s.toString());
+  }
+
+  @Test
+  void once_shouldBeTriggeredOnlyOnce() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v)).once(() -> s.append("-")).once(v -> s.append("!"));
+
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("1-!2", s.toString());
+    assertEquals(1, eventEmitter.size());
+  }
+
+  @Test
+  void once_withReentrantEmit_shouldNotBeTriggeredTwice() {
+    var s = new StringBuilder();
+
+    eventEmitter.once(
+        v -> {
+          s.append(v);
+          eventEmitter.emit(v + 1);
+        });
+    eventEmitter.emit(1L);
+
+    assertEquals("1", s.toString());
+    assertFalse(eventEmitter.hasListeners());
+  }
+
+  @Test
+  void emit_shouldRemoveOnceListenersBeforeInvokingAny() {
+    var sizes = new ArrayList<Integer>();
+
+    eventEmitter.on(v -> sizes.add(eventEmitter.size()));
+    eventEmitter.once(v -> sizes.add(eventEmitter.size()));
+    eventEmitter.emit(1L);
+
+    // Even the first listener, persistent, sees the one-time listener already removed
+    assertEquals(List.of(1, 1), sizes);
+  }
+
+  @Test
+  void off_duringEmit_shouldTakeEffectFromNextEmit() {
+    var s = new StringBuilder();
+    LongEventEmitter.Listener second = v -> s.append("B").append(v);
+
+    eventEmitter.on(v -> eventEmitter.off(second)).on(second);
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("B1", s.toString());
+  }
+
+  @Test
+  void off_shouldRemoveFirstRegistration() {
+    var s = new StringBuilder();
+    LongEventEmitter.Listener listener = v -> s.append(v);
+
+    eventEmitter.once(listener).on(listener).on(() -> s.append("-"));
+    eventEmitter.off(listener);
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("1-2-", s.toString());
+  }
+
+  @Test
+  void on_duringEmit_shouldTakeEffectFromNextEmit() {
+    var s = new StringBuilder();
+
+    eventEmitter.once(v -> eventEmitter.on(w -> s.append(w)));
+    eventEmitter.emit(1L);
+    eventEmitter.emit(2L);
+
+    assertEquals("2", s.toString());
+  }
+
+  @Test
+  void clear_shouldRemoveAllListeners() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v)).once(v -> s.append(v));
+    eventEmitter.clear();
+    eventEmitter.emit(1L);
+
+    assertEquals("", s.toString());
+    assertFalse(eventEmitter.hasListeners());
+  }
+
+  @Test
+  void emit_shouldPassValueAndRemoveOnceListeners() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(v -> s.append(v).append(";")).once(() -> s.append("-"));
+    eventEmitter.emit(Long.MAX_VALUE);
+    eventEmitter.emit(-1L);
+
+    assertEquals(Long.MAX_VALUE + ";-" + "-1;", s.toString());
+  }
+}
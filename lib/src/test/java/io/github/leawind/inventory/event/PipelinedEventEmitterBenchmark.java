@@ -0,0 +1,127 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Direct {@code emit} vs. {@link PipelinedEventEmitter}.
+ *
+ * <ul>
+ *   <li>{@code *_throughput}: events per microsecond accepted by a single producer thread. For the
+ *       pipelined emitter, listener work runs on the consumers, and the producer only blocks when
+ *       the ring buffer is full.
+ *   <li>{@code *_roundTrip}: time from publishing an event until its listeners have returned.
+ * </ul>
+ */
+@SuppressWarnings("unused")
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PipelinedEventEmitterBenchmark {
+  public static final class MutableEvent {
+    long value;
+  }
+
+  @Param({"busySpin", "yielding", "parking"})
+  private String waitStrategy;
+
+  @Param({"1", "2"})
+  private int consumers;
+
+  @Param({"4"})
+  private int listenerCount;
+
+  private final MutableEvent event = new MutableEvent();
+
+  private SimpleEventEmitter<MutableEvent> simpleEmitter;
+  private EventEmitter<MutableEvent> eventEmitter;
+  private PipelinedEventEmitter<MutableEvent> pipelinedEmitter;
+
+  /** Value of the last event processed by the pipelined emitter */
+  private volatile long processed = 0;
+
+  private long published = 0;
+
+  @Setup
+  public void setup() {
+    simpleEmitter = new SimpleEventEmitter<>();
+    eventEmitter = new EventEmitter<>();
+    pipelinedEmitter =
+        new PipelinedEventEmitter.Builder<>(MutableEvent::new)
+            .bufferSize(1024)
+            .consumers(consumers)
+            .waitStrategy(
+                switch (waitStrategy) {
+                  case "busySpin" -> WaitStrategy.busySpin();
+                  case "yielding" -> WaitStrategy.yielding();
+                  case "parking" -> WaitStrategy.parking(50_000);
+                  default -> throw new IllegalArgumentException(waitStrategy);
+                })
+            .build();
+
+    for (int i = 0; i < listenerCount; i++) {
+      simpleEmitter.on(e -> Blackhole.consumeCPU(16));
+      eventEmitter.on(e -> Blackhole.consumeCPU(16));
+      pipelinedEmitter.listeners().on(e -> Blackhole.consumeCPU(16));
+    }
+    pipelinedEmitter.listeners().on(e -> processed = e.value, Integer.MIN_VALUE);
+    pipelinedEmitter.start();
+  }
+
+  @TearDown
+  public void tearDown() {
+    pipelinedEmitter.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void simple_throughput() {
+    simpleEmitter.emit(event);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void direct_throughput() {
+    eventEmitter.emit(event);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void pipelined_throughput() {
+    pipelinedEmitter.publish((e, value) -> e.value = value, ++published);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void direct_roundTrip() {
+    eventEmitter.emit(event);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void pipelined_roundTrip() {
+    long value = ++published;
+    pipelinedEmitter.publish((e, v) -> e.value = v, value);
+    while (processed < value) {
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package io.github.leawind.inventory.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class PipelinedEventEmitterTest {
+  private static final class MutableEvent {
+    int value;
+  }
+
+  private static PipelinedEventEmitter.Builder<MutableEvent> builder() {
+    return new PipelinedEventEmitter.Builder<>(MutableEvent::new).bufferSize(16);
+  }
+
+  @Test
+  void singleConsumer_shouldProcessInOrder() {
+    List<Integer> received = new ArrayList<>();
+
+    PipelinedEventEmitter<MutableEvent> emitter = builder().build();
+    emitter.listeners().on(e -> received.add(e.value));
+    emitter.start();
+
+    for (int i = 0; i < 10000; i++) {
+      int value = i;
+      emitter.publish(e -> e.value = value);
+    }
+    emitter.close();
+
+    assertEquals(10000, received.size());
+    for (int i = 0; i < received.size(); i++) {
+      assertEquals(i, (int) received.get(i));
+    }
+  }
+
+  @Test
+  void multipleProducersAndConsumers_shouldProcessEveryEventOnce() throws InterruptedException {
+    WaitStrategy[] strategies = {
+      WaitStrategy.busySpin(), WaitStrategy.yielding(), WaitStrategy.parking(10_000)
+    };
+    for (WaitStrategy strategy : strategies) {
+      AtomicLong sum = new AtomicLong();
+      AtomicInteger count = new AtomicInteger();
+
+      PipelinedEventEmitter<MutableEvent> emitter =
+          builder().consumers(2).waitStrategy(strategy).build();
+      emitter.listeners().on(
+          e -> {
+            sum.addAndGet(e.value);
+            count.incrementAndGet();
+          });
+      emitter.start();
+
+      Thread[] producers = new Thread[3];
+      for (int p = 0; p < producers.length; p++) {
+        producers[p] =
+            new Thread(
+                () -> {
+                  for (int i = 1; i <= 2000; i++) {
+                    emitter.publish((e, value) -> e.value = value, i);
+                  }
+                });
+        producers[p].start();
+      }
+      for (Thread producer : producers) {
+        producer.join();
+      }
+      emitter.close();
+
+      assertEquals(3 * 2000, count.get());
+      assertEquals(3L * 2000 * 2001 / 2, sum.get());
+    }
+  }
+
+  @Test
+  void listenerChain_shouldKeepPriorityAndStop() {
+    List<String> received = new CopyOnWriteArrayList<>();
+
+    PipelinedEventEmitter<MutableEvent> emitter = builder().build();
+    emitter
+        .listeners()
+        .on(
+            (e, ctrl) -> {
+              received.add("high:" + e.value);
+              if (e.value == 1) {
+                ctrl.stop();
+              }
+            },
+            1)
+        .on(e -> received.add("low:" + e.value));
+    emitter.start();
+
+    emitter.publish(e -> e.value = 0);
+    emitter.publish(e -> e.value = 1);
+    emitter.close();
+
+    assertEquals(List.of("high:0", "low:0", "high:1"), received);
+  }
+
+  @Test
+  void exceptionHandler_shouldReceiveErrorsAndContinue() {
+    List<Integer> failed = new CopyOnWriteArrayList<>();
+    AtomicInteger count = new AtomicInteger();
+
+    PipelinedEventEmitter<MutableEvent> emitter =
+        builder().exceptionHandler((error, e) -> failed.add(e.value)).build();
+    emitter.listeners().on(
+        e -> {
+          if (e.value % 10 == 0) {
+            throw new IllegalStateException();
+          }
+          count.incrementAndGet();
+        });
+    emitter.start();
+
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      emitter.publish(e -> e.value = value);
+    }
+    emitter.close();
+
+    assertEquals(10, failed.size());
+    assertEquals(90, count.get());
+  }
+
+  @Test
+  void next_afterClose_shouldThrow() {
+    PipelinedEventEmitter<MutableEvent> emitter = builder().build();
+    emitter.start();
+    emitter.close();
+
+    assertThrows(IllegalStateException.class, emitter::next);
+    assertThrows(IllegalStateException.class, emitter::start);
+  }
+
+  @Test
+  void close_beforeStart_shouldNotBlock() {
+    PipelinedEventEmitter<MutableEvent> emitter = builder().build();
+    emitter.publish(e -> e.value = 1);
+    emitter.close();
+  }
+
+  @Test
+  void builder_withInvalidArguments_shouldThrow() {
+    assertThrows(IllegalArgumentException.class, () -> builder().bufferSize(12).build());
+    assertThrows(IllegalArgumentException.class, () -> builder().bufferSize(0).build());
+    assertThrows(IllegalArgumentException.class, () -> builder().consumers(0).build());
+    assertThrows(IllegalArgumentException.class, () -> WaitStrategy.parking(0));
+  }
+}
@@ -0,0 +1,100 @@
+package io.github.leawind.inventory.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Emitting primitive values through the generic emitters vs. the primitive-specialized ones.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc}. Values are outside the {@link Integer#valueOf} cache, so
+ * the generic emitters are expected to allocate one box per emission, and the specialized ones 0
+ * B/op.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PrimitiveEventEmitterBenchmark {
+
+  @Param({"1", "4"})
+  private int listenerCount;
+
+  private SingleEventEmitter<Integer> singleInt;
+  private SimpleEventEmitter<Long> simpleLong;
+  private SimpleEventEmitter<Double> simpleDouble;
+  private IntEventEmitter primitiveInt;
+  private LongEventEmitter primitiveLong;
+  private DoubleEventEmitter primitiveDouble;
+
+  private int tick = 1000;
+  private long sink;
+  private double doubleSink;
+
+  @Setup
+  public void setup() {
+    singleInt = new SingleEventEmitter<>();
+    simpleLong = new SimpleEventEmitter<>();
+    simpleDouble = new SimpleEventEmitter<>();
+    primitiveInt = new IntEventEmitter();
+    primitiveLong = new LongEventEmitter();
+    primitiveDouble = new DoubleEventEmitter();
+
+    singleInt.on(v -> sink += v);
+    for (int i = 0; i < listenerCount; i++) {
+      simpleLong.on(v -> sink += v);
+      simpleDouble.on(v -> doubleSink += v);
+      primitiveLong.on(v -> sink += v);
+      primitiveDouble.on(v -> doubleSink += v);
+    }
+    primitiveInt.on(v -> sink += v);
+  }
+
+  @Benchmark
+  public long singleInt() {
+    singleInt.emit(++tick);
+    return sink;
+  }
+
+  @Benchmark
+  public long primitiveInt() {
+    primitiveInt.emit(++tick);
+    return sink;
+  }
+
+  @Benchmark
+  public long simpleLong() {
+    simpleLong.emit(System.nanoTime());
+    return sink;
+  }
+
+  @Benchmark
+  public long primitiveLong() {
+    primitiveLong.emit(System.nanoTime());
+    return sink;
+  }
+
+  @Benchmark
+  public double simpleDouble() {
+    simpleDouble.emit(tick++ * 0.5);
+    return doubleSink;
+  }
+
+  @Benchmark
+  public double primitiveDouble() {
+    primitiveDouble.emit(tick++ * 0.5);
+    return doubleSink;
+  }
+}
@@ -172,4 +172,47 @@ public class SimpleEventEmitterTest {
 
     assertEquals(3, counter[0]);
   }
+
+  @Test
+  void testEmitAll_perEventListeners() {
+    var s = new StringBuilder();
+
+    eventEmitter.on(e -> s.append("1").append(e));
+    eventEmitter.on(e -> s.append("2").append(e));
+
+    eventEmitter.emitAll(List.of("a", "b"));
+
+    assertEquals("1a1b2a2b", s.toString());
+  }
+
+  @Test
+  void testEmitAll_batchListener() {
+    var batches = new ArrayList<List<String>>();
+
+    eventEmitter.on((SimpleEventEmitter.Listener.Batch<String>) e -> batches.add(List.copyOf(e)));
+
+    eventEmitter.emitAll(List.of("a", "b", "c"));
+    eventEmitter.emit("d");
+
+    assertEquals(List.of(List.of("a", "b", "c"), List.of("d")), batches);
+  }
+
+  @Test
+  void testMetrics() {
+    SimpleEventEmitter.Listener<String> listener = e -> {};
+    eventEmitter.on(listener).on(listener).on(e -> {});
+
+    eventEmitter.emit("x");
+    assertTrue(eventEmitter.metricsSnapshot().isEmpty());
+
+    eventEmitter.setMetricsEnabled(true);
+    eventEmitter.emit("x");
+    eventEmitter.emitAll(List.of("a", "b"));
+
+    List<ListenerMetrics.Snapshot> snapshots = eventEmitter.metricsSnapshot();
+    assertEquals(2, snapshots.size());
+    assertSame(listener, snapshots.get(0).listener());
+    assertEquals(6, snapshots.get(0).invocations());
+    assertEquals(3, snapshots.get(1).invocations());
+  }
 }
@@ -233,4 +233,27 @@ public class SingleEventEmitterTest {
 
     assertNotNull(listener);
   }
+
+  @Test
+  void testMetrics() {
+    eventEmitter.setMetricsEnabled(true);
+    assertNull(eventEmitter.metricsSnapshot());
+
+    eventEmitter.on(
+        e -> {
+          if (e == null) {
+            throw new IllegalStateException();
+          }
+        });
+    eventEmitter.emit("A");
+    assertThrows(IllegalStateException.class, () -> eventEmitter.emit(null));
+
+    ListenerMetrics.Snapshot snapshot = eventEmitter.metricsSnapshot();
+    assertNotNull(snapshot);
+    assertEquals(2, snapshot.invocations());
+    assertEquals(1, snapshot.exceptions());
+
+    eventEmitter.on(e -> {});
+    assertEquals(0, eventEmitter.metricsSnapshot().invocations());
+  }
 }
@@ -0,0 +1,144 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentObjectPoolTest {
+
+  @Test
+  void release_beyondLocalCapacity_shouldSpillToSharedStack() throws InterruptedException {
+    ConcurrentObjectPool<Cat> pool =
+        ConcurrentObjectPool.builder(Cat::new).localCapacity(4).build();
+    Set<Cat> released = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < 10; i++) {
+      Cat cat = new Cat();
+      released.add(cat);
+      pool.release(cat);
+    }
+    assertEquals(10, pool.idleCount());
+
+    // Another thread only sees the shared stack, then takes batches from it
+    List<Cat> acquired = new ArrayList<>();
+    int[] idleSeenByOther = new int[1];
+    Thread other =
+        new Thread(
+            () -> {
+              idleSeenByOther[0] = pool.idleCount();
+              for (int i = 0; i < 6; i++) {
+                acquired.add(pool.acquire());
+              }
+            });
+    other.start();
+    other.join();
+
+    // Three batches of two were spilled, four objects stay in the local cache
+    assertEquals(6, idleSeenByOther[0]);
+    assertEquals(6, acquired.size());
+    for (Cat cat : acquired) {
+      assertTrue(released.contains(cat));
+    }
+    assertEquals(4, pool.idleCount());
+  }
+
+  @Test
+  void acquireAndRelease_fromManyThreads_shouldNeverHandOutAnObjectTwice()
+      throws InterruptedException {
+    ConcurrentObjectPool<Cat> pool =
+        ConcurrentObjectPool.builder(Cat::new).localCapacity(4).build();
+    int threads = 4;
+    int rounds = 2000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> workers = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      Thread worker =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                  List<Cat> held = new ArrayList<>();
+                  for (int i = 0; i < rounds; i++) {
+                    for (int j = 0; j < 3; j++) {
+                      Cat cat = pool.acquire();
+                      // Every object in use is owned by exactly one thread
+                      assertEquals(-1, cat.id);
+                      cat.id = id;
+                      held.add(cat);
+                    }
+                    for (Cat cat : held) {
+                      assertEquals(id, cat.id);
+                      cat.id = -1;
+                      pool.release(cat);
+                    }
+                    held.clear();
+                  }
+                } catch (Throwable e) {
+                  failures.add(e);
+                }
+              });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertEquals(List.of(), failures);
+  }
+
+  @Test
+  void virtualPath_shouldShareOneStackWithPlatformThreads() throws InterruptedException {
+    ConcurrentObjectPool<Cat> pool =
+        ConcurrentObjectPool.builder(Cat::new).localCapacity(4).build();
+    Cat a = new Cat();
+    Cat b = new Cat();
+    pool.releaseVirtual(a);
+    pool.releaseVirtual(b);
+    assertEquals(2, pool.idleCount());
+    assertSame(b, pool.pollVirtual());
+
+    // An empty local cache and lock-free stack fall back to the stack of virtual threads
+    assertSame(a, pool.acquire());
+    assertEquals(0, pool.idleCount());
+    assertNull(pool.pollVirtual());
+
+    // Spill batches of two from a platform thread, taken one at a time by virtual threads
+    Thread other =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 10; i++) {
+                pool.release(new Cat());
+              }
+            });
+    other.start();
+    other.join();
+    assertEquals(6, pool.idleCount());
+    for (int i = 0; i < 6; i++) {
+      assertNotNull(pool.pollVirtual());
+      assertEquals(5 - i, pool.idleCount());
+    }
+    assertNull(pool.pollVirtual());
+  }
+
+  @Test
+  void isVirtual_withPlatformThread_shouldBeFalse() {
+    assertFalse(ConcurrentObjectPool.isVirtual(Thread.currentThread()));
+  }
+
+  @Test
+  void build_withTooSmallLocalCapacity_shouldThrow() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConcurrentObjectPool.builder(Cat::new).localCapacity(1).build());
+  }
+}
@@ -0,0 +1,157 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class DirectBufferPoolTest {
+  private static final int K = 1 << 10;
+  private static final int M = 1 << 20;
+
+  @Test
+  void acquire_shouldRoundUpToSizeClass() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().build();
+
+    ByteBuffer small = pool.acquire(100);
+    assertTrue(small.isDirect());
+    assertEquals(4 * K, small.capacity());
+    assertEquals(0, small.position());
+    assertEquals(100, small.limit());
+
+    assertEquals(8 * K, pool.acquire(4 * K + 1).capacity());
+    assertEquals(4 * M, pool.acquire(4 * M).capacity());
+    assertEquals(4 * M + 1, pool.acquire(4 * M + 1).capacity());
+    assertEquals(12 * K + 4 * M + 4 * M + 1, pool.allocatedBytes());
+  }
+
+  @Test
+  void release_shouldReturnBufferToItsClass() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().build();
+    ByteBuffer buffer = pool.acquire(5000);
+    buffer.putInt(42);
+
+    pool.release(buffer);
+    assertEquals(1, pool.idleCount(8 * K));
+    assertEquals(8 * K, pool.pooledBytes());
+
+    ByteBuffer again = pool.acquire(6000);
+    assertSame(buffer, again);
+    assertEquals(0, again.position());
+    assertEquals(6000, again.limit());
+    assertEquals(0, pool.pooledBytes());
+    assertEquals(8 * K, pool.allocatedBytes());
+  }
+
+  @Test
+  void release_withForeignBuffer_shouldThrow() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().build();
+
+    assertThrows(IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocate(4 * K)));
+    assertThrows(
+        IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(5000)));
+    // Sizes that match a class, or are too large for any class, are rejected all the same
+    assertThrows(
+        IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(4 * K)));
+    assertThrows(
+        IllegalArgumentException.class, () -> pool.release(ByteBuffer.allocateDirect(8 * M)));
+    assertEquals(0, pool.allocatedBytes());
+  }
+
+  @Test
+  void release_twice_shouldThrow() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().build();
+    ByteBuffer large = pool.acquire(8 * M);
+    pool.release(large);
+    assertEquals(0, pool.allocatedBytes());
+
+    assertThrows(IllegalArgumentException.class, () -> pool.release(large));
+    assertEquals(0, pool.allocatedBytes());
+  }
+
+  @Test
+  void release_beyondMaxPooledBytes_shouldDropBuffer() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().maxPooledBytes(8 * K).build();
+    ByteBuffer a = pool.acquire(4 * K);
+    ByteBuffer b = pool.acquire(4 * K);
+    ByteBuffer c = pool.acquire(4 * K);
+
+    pool.release(a);
+    pool.release(b);
+    pool.release(c);
+
+    assertEquals(2, pool.idleCount(4 * K));
+    assertEquals(8 * K, pool.pooledBytes());
+    assertEquals(8 * K, pool.allocatedBytes());
+  }
+
+  @Test
+  void acquire_atMaxAllocatedBytes_shouldDropIdleBuffersThenThrow() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().maxAllocatedBytes(64 * K).build();
+    ByteBuffer big = pool.acquire(32 * K);
+    ByteBuffer held = pool.acquire(16 * K);
+    pool.release(big);
+    assertEquals(48 * K, pool.allocatedBytes());
+
+    // Needs the idle 32K buffer to be dropped
+    ByteBuffer other = pool.acquire(20 * K);
+    assertEquals(32 * K, other.capacity());
+    assertEquals(0, pool.idleCount(32 * K));
+    assertEquals(48 * K, pool.allocatedBytes());
+
+    assertThrows(IllegalStateException.class, () -> pool.acquire(32 * K));
+    pool.release(held);
+    pool.release(other);
+    assertEquals(48 * K, pool.pooledBytes());
+  }
+
+  @Test
+  void acquire_atMaxAllocatedBytes_shouldDropOnlyEnoughIdleBuffers() {
+    DirectBufferPool pool = new DirectBufferPool.Builder().maxAllocatedBytes(64 * K).build();
+    ByteBuffer[] small = new ByteBuffer[4];
+    for (int i = 0; i < small.length; i++) {
+      small[i] = pool.acquire(8 * K);
+    }
+    for (ByteBuffer buffer : small) {
+      pool.release(buffer);
+    }
+    ByteBuffer held = pool.acquire(16 * K);
+    assertEquals(48 * K, pool.allocatedBytes());
+
+    // 16K over the limit, so two of the four idle 8K buffers are dropped
+    ByteBuffer large = pool.acquire(32 * K);
+    assertEquals(2, pool.idleCount(8 * K));
+    assertEquals(16 * K, pool.pooledBytes());
+    assertEquals(64 * K, pool.allocatedBytes());
+
+    pool.release(held);
+    pool.release(large);
+  }
+
+  @Test
+  void trim_shouldDropIdleBuffersAndUpdateAccounting() {
+    long[] nanos = {0};
+    DirectBufferPool pool =
+        new DirectBufferPool.Builder()
+            .clock(() -> nanos[0])
+            .idlePeriod(1, TimeUnit.SECONDS)
+            .build();
+    pool.release(pool.acquire(4 * K));
+    pool.release(pool.acquire(M));
+
+    nanos[0] += TimeUnit.SECONDS.toNanos(1);
+    pool.trim();
+    nanos[0] += TimeUnit.SECONDS.toNanos(1);
+    pool.trim();
+
+    assertEquals(0, pool.pooledBytes());
+    assertEquals(0, pool.allocatedBytes());
+  }
+
+  @Test
+  void sizeClasses_withNonPowerOfTwo_shouldThrow() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new DirectBufferPool.Builder().sizeClasses(3000, M));
+  }
+}
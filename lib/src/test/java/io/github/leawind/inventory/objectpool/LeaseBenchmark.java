@@ -0,0 +1,57 @@
+package io.github.leawind.inventory.objectpool;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ObjectPool#lease()} in try-with-resources vs. raw acquire and release in try/finally.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc}, {@code gc.alloc.rate.norm} is expected to be 0 B/op for
+ * both, the lease being scalar-replaced.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class LeaseBenchmark {
+  private StackObjectPool<Cat> pool;
+
+  private int sink;
+
+  @Setup
+  public void setup() {
+    pool = new StackObjectPool<>(Cat::new);
+    pool.ensureIdle(8);
+  }
+
+  @Benchmark
+  public int raw() {
+    Cat cat = pool.acquire();
+    try {
+      sink += cat.id;
+    } finally {
+      pool.release(cat);
+    }
+    return sink;
+  }
+
+  @Benchmark
+  public int lease() {
+    try (Lease<Cat> lease = pool.lease()) {
+      sink += lease.get().id;
+    }
+    return sink;
+  }
+}
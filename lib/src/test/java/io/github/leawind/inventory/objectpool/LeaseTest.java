@@ -0,0 +1,67 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Assumes assertions are enabled, as they are for tests. */
+public class LeaseTest {
+
+  static Stream<Arguments> providePools() {
+    return Stream.of(
+        Arguments.of(new DequeObjectPool<>(Cat::new)),
+        Arguments.of(new StackObjectPool<>(Cat::new)),
+        Arguments.of(new ConcurrentObjectPool<>(Cat::new)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void lease_shouldReleaseObjectOnClose(ObjectPool<Cat> pool) {
+    Cat leased;
+    try (Lease<Cat> lease = pool.lease()) {
+      leased = lease.get();
+      assertEquals(0, pool.idleCount());
+    }
+    assertEquals(1, pool.idleCount());
+    assertSame(leased, pool.acquire());
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void lease_whenBodyThrows_shouldStillRelease(ObjectPool<Cat> pool) {
+    assertThrows(
+        IllegalStateException.class,
+        () -> {
+          try (Lease<Cat> lease = pool.lease()) {
+            lease.get().id = 1;
+            throw new IllegalStateException();
+          }
+        });
+    assertEquals(1, pool.idleCount());
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void close_twice_shouldBeDetected(ObjectPool<Cat> pool) {
+    Lease<Cat> lease = pool.lease();
+    lease.close();
+
+    assertThrows(AssertionError.class, lease::close);
+    assertThrows(AssertionError.class, lease::get);
+    assertEquals(1, pool.idleCount());
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void release_ofIdleObject_shouldBeDetected(ObjectPool<Cat> pool) {
+    Lease<Cat> lease = pool.lease();
+    Cat cat = lease.get();
+    pool.release(cat);
+
+    assertThrows(AssertionError.class, lease::close);
+  }
+}
@@ -14,6 +14,7 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 
@@ -33,6 +34,12 @@ public class ObjectPoolBenchmark {
   private ObjectPool<Cat> dequePool;
   private ObjectPool<Cat> stackPool;
 
+  /** Shared by all benchmark threads */
+  private ObjectPool<Cat> concurrentPool;
+
+  /** Shared by all benchmark threads, the alternative to {@link #concurrentPool} */
+  private ObjectPool<Cat> lockedStackPool;
+
   @Param({"32", "1024"})
   private int operationPairs;
 
@@ -45,6 +52,8 @@ public class ObjectPoolBenchmark {
   public void setup() {
     dequePool = new DequeObjectPool<>(Cat::new).ensureIdle(poolSize);
     stackPool = new StackObjectPool<>(Cat::new).ensureIdle(poolSize);
+    concurrentPool = new ConcurrentObjectPool<>(Cat::new).ensureIdle(poolSize);
+    lockedStackPool = new LockedObjectPool<>(new StackObjectPool<>(Cat::new)).ensureIdle(poolSize);
 
     operations = new boolean[operationPairs * 2];
     borrowed = new ArrayDeque<>(operationPairs);
@@ -52,26 +61,104 @@ public class ObjectPoolBenchmark {
     generateValidSequence(operations, random);
   }
 
+  /** Objects borrowed by one benchmark thread */
+  @State(Scope.Thread)
+  public static class Borrowed {
+    private final Queue<Cat> queue = new ArrayDeque<>();
+  }
+
   @Benchmark
   public void benchmarkDequePool(Blackhole bh) {
-    simulateOperations(bh, dequePool);
+    simulateOperations(bh, borrowed, dequePool);
   }
 
   @Benchmark
   public void benchmarkStackPool(Blackhole bh) {
-    simulateOperations(bh, stackPool);
+    simulateOperations(bh, borrowed, stackPool);
+  }
+
+  // region Multi-threaded
+
+  @Benchmark
+  @Threads(1)
+  public void concurrentPool1Thread(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, concurrentPool);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void concurrentPool4Threads(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, concurrentPool);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void concurrentPool16Threads(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, concurrentPool);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void lockedStackPool1Thread(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, lockedStackPool);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void lockedStackPool4Threads(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, lockedStackPool);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void lockedStackPool16Threads(Borrowed b, Blackhole bh) {
+    simulateOperations(bh, b.queue, lockedStackPool);
   }
 
-  private void simulateOperations(Blackhole bh, ObjectPool<Cat> pool) {
+  // endregion
+
+  private void simulateOperations(Blackhole bh, Queue<Cat> borrowed, ObjectPool<Cat> pool) {
     for (boolean operation : operations) {
       if (operation) {
-        borrowed.add(pool.acquire());
+        Cat cat = pool.acquire();
+        bh.consume(cat);
+        borrowed.add(cat);
       } else {
         pool.release(borrowed.poll());
       }
     }
   }
 
+  /** Wraps a single-threaded pool with a lock */
+  private static class LockedObjectPool<T> implements ObjectPool<T> {
+    private final ObjectPool<T> pool;
+
+    LockedObjectPool(ObjectPool<T> pool) {
+      this.pool = pool;
+    }
+
+    @Override
+    public synchronized int idleCount() {
+      return pool.idleCount();
+    }
+
+    @Override
+    public synchronized ObjectPool<T> ensureIdle(int minSize) {
+      pool.ensureIdle(minSize);
+      return this;
+    }
+
+    @Override
+    public synchronized T acquire() {
+      return pool.acquire();
+    }
+
+    @Override
+    public synchronized void release(T obj) {
+      pool.release(obj);
+    }
+  }
+
   private static void generateValidSequence(boolean[] arr, Random random) {
     if (arr.length % 2 != 0) {
       throw new IllegalArgumentException("Array length must be even");
@@ -19,7 +19,14 @@ public class ObjectPoolTest {
         Arguments.of((PoolFactory<Cat>) capacity -> new DequeObjectPool<>(Cat::new, capacity)),
         Arguments.of(
             (PoolFactory<Cat>)
-                capacity -> StackObjectPool.builder(Cat::new).capacity(capacity).build()));
+                capacity -> StackObjectPool.builder(Cat::new).capacity(capacity).build()),
+        Arguments.of(
+            (PoolFactory<Cat>)
+                capacity ->
+                    ConcurrentObjectPool.builder(Cat::new).localCapacity(capacity).build()),
+        Arguments.of(
+            (PoolFactory<Cat>)
+                capacity -> TieredObjectPool.builder(Cat::new).hotCapacity(capacity).build()));
   }
 
   @ParameterizedTest
@@ -0,0 +1,103 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PoolInstrumentationTest {
+
+  @Test
+  void stackPool_metrics_shouldCountPoolEvents() {
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new).capacity(4).build().setMetricsEnabled(true);
+
+    pool.ensureIdle(2);
+    List<Cat> cats = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      cats.add(pool.acquire());
+    }
+    cats.forEach(pool::release);
+    pool.clear();
+
+    PoolMetrics.Snapshot snapshot = pool.metricsSnapshot();
+    assertNotNull(snapshot);
+    assertEquals(2, snapshot.hits());
+    assertEquals(3, snapshot.misses());
+    assertEquals(5, snapshot.factoryCalls());
+    assertEquals(5, snapshot.releases());
+    assertEquals(5, snapshot.highWater());
+    assertTrue(snapshot.expands() > 0);
+    assertEquals(5, snapshot.destroyed());
+    assertEquals(0, snapshot.outstanding());
+    assertEquals(0.4, snapshot.hitRate(), 1e-9);
+  }
+
+  @Test
+  void dequePool_metrics_shouldCountPoolEvents() {
+    DequeObjectPool<Cat> pool = new DequeObjectPool<>(Cat::new).setMetricsEnabled(true);
+
+    pool.ensureIdle(1);
+    Cat a = pool.acquire();
+    pool.acquire();
+    pool.release(a);
+
+    PoolMetrics.Snapshot snapshot = pool.metricsSnapshot();
+    assertNotNull(snapshot);
+    assertEquals(1, snapshot.hits());
+    assertEquals(1, snapshot.misses());
+    assertEquals(2, snapshot.factoryCalls());
+    assertEquals(1, snapshot.outstanding());
+  }
+
+  @Test
+  void metrics_whenNeverEnabled_shouldBeNull() {
+    assertNull(new StackObjectPool<>(Cat::new).metricsSnapshot());
+    assertNull(new DequeObjectPool<>(Cat::new).metricsSnapshot());
+  }
+
+  @Test
+  void leakDetector_shouldReportCollectedObjectsOnly() throws InterruptedException {
+    List<LeakDetector.Leak> leaks = new ArrayList<>();
+    LeakDetector<Cat> detector = new LeakDetector<>(1, leaks::add);
+    StackObjectPool<Cat> pool = new StackObjectPool<>(Cat::new).setLeakDetector(detector);
+
+    Cat kept = pool.acquire();
+    pool.release(pool.acquire());
+    acquireAndForget(pool);
+    assertEquals(2, detector.trackedCount());
+
+    for (int i = 0; i < 50 && leaks.isEmpty(); i++) {
+      System.gc();
+      Thread.sleep(10);
+      detector.poll();
+    }
+
+    assertEquals(1, leaks.size());
+    assertEquals(Cat.class.getName(), leaks.get(0).type());
+    assertTrue(
+        Arrays.stream(leaks.get(0).acquireSite().getStackTrace())
+            .anyMatch(frame -> frame.getMethodName().equals("acquireAndForget")));
+    assertEquals(1, detector.trackedCount());
+    pool.release(kept);
+    assertEquals(0, detector.trackedCount());
+  }
+
+  @Test
+  void leakDetector_shouldSampleAcquisitions() {
+    LeakDetector<Cat> detector = new LeakDetector<>(4, leak -> {});
+    DequeObjectPool<Cat> pool = new DequeObjectPool<>(Cat::new).setLeakDetector(detector);
+
+    List<Cat> cats = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      cats.add(pool.acquire());
+    }
+    assertEquals(2, detector.trackedCount());
+  }
+
+  private static void acquireAndForget(ObjectPool<Cat> pool) {
+    pool.acquire();
+  }
+}
@@ -0,0 +1,126 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class PooledObjectPolicyTest {
+
+  /** Cats with a negative id are invalid */
+  static class CatPolicy implements PooledObjectPolicy<Cat> {
+    final List<Cat> destroyed = new ArrayList<>();
+    final List<Integer> batchSizes = new ArrayList<>();
+
+    @Override
+    public void reset(Cat cat) {
+      cat.name = "unnamed";
+    }
+
+    @Override
+    public boolean validate(Cat cat) {
+      return cat.id >= 0;
+    }
+
+    @Override
+    public void destroy(Cat cat) {
+      destroyed.add(cat);
+    }
+
+    @Override
+    public void destroyAll(List<Cat> cats) {
+      batchSizes.add(cats.size());
+      PooledObjectPolicy.super.destroyAll(cats);
+    }
+  }
+
+  static Stream<Arguments> providePools() {
+    Function<CatPolicy, ObjectPool<Cat>> deque = p -> new DequeObjectPool<>(Cat::new, 8, p);
+    Function<CatPolicy, ObjectPool<Cat>> stack =
+        p -> StackObjectPool.builder(Cat::new).policy(p).build();
+    Function<CatPolicy, ObjectPool<Cat>> concurrent =
+        p -> ConcurrentObjectPool.builder(Cat::new).policy(p).build();
+    return Stream.of(Arguments.of(deque), Arguments.of(stack), Arguments.of(concurrent));
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void release_shouldResetObject(Function<CatPolicy, ObjectPool<Cat>> poolFactory) {
+    ObjectPool<Cat> pool = poolFactory.apply(new CatPolicy());
+
+    Cat cat = pool.acquire();
+    cat.name = "Tom";
+    pool.release(cat);
+
+    assertEquals("unnamed", cat.name);
+  }
+
+  @ParameterizedTest
+  @MethodSource("providePools")
+  void acquire_shouldDestroyInvalidObjects(Function<CatPolicy, ObjectPool<Cat>> poolFactory) {
+    CatPolicy policy = new CatPolicy();
+    ObjectPool<Cat> pool = poolFactory.apply(policy);
+
+    Cat invalid = new Cat();
+    pool.release(invalid);
+
+    assertNotSame(invalid, pool.acquire());
+    assertEquals(List.of(invalid), policy.destroyed);
+    assertEquals(0, pool.idleCount());
+  }
+
+  @Test
+  void stackPool_evictAndClose_shouldDestroyInBatches() {
+    long[] nanos = {0};
+    CatPolicy policy = new CatPolicy();
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(
+                () -> {
+                  Cat cat = new Cat();
+                  cat.id = 0;
+                  return cat;
+                })
+            .policy(policy)
+            .capacity(64)
+            .clock(() -> nanos[0])
+            .idlePeriod(1, TimeUnit.SECONDS)
+            .build();
+    pool.ensureIdle(40);
+    nanos[0] += 1_000_000_000L;
+    pool.trim();
+    for (int i = 0; i < 5; i++) {
+      pool.acquire();
+    }
+    pool.ensureIdle(40);
+
+    nanos[0] += 1_000_000_000L;
+    pool.trim();
+    assertEquals(5, pool.idleCount());
+    assertEquals(List.of(35), policy.batchSizes);
+
+    pool.close();
+    assertEquals(0, pool.idleCount());
+    assertEquals(40, policy.destroyed.size());
+    assertEquals(List.of(35, 5), policy.batchSizes);
+  }
+
+  @Test
+  void dequePool_clear_shouldDestroyIdleObjects() {
+    CatPolicy policy = new CatPolicy();
+    DequeObjectPool<Cat> pool = new DequeObjectPool<>(Cat::new, 8, policy);
+    pool.ensureIdle(3);
+
+    pool.clear();
+
+    assertEquals(0, pool.idleCount());
+    assertEquals(3, policy.destroyed.size());
+    assertEquals(List.of(3), policy.batchSizes);
+  }
+}
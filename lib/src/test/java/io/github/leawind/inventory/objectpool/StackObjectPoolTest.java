@@ -0,0 +1,245 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+public class StackObjectPoolTest {
+  private final long[] nanos = {0};
+
+  private void advanceMillis(long millis) {
+    nanos[0] += TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Test
+  void trim_shouldDropObjectsIdleForTheIdlePeriod() {
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new)
+            .capacity(16)
+            .clock(() -> nanos[0])
+            .idlePeriod(1, TimeUnit.SECONDS)
+            .build();
+    pool.ensureIdle(6);
+
+    advanceMillis(1000);
+    pool.trim();
+    // Nothing was known to be idle before the first period ended
+    assertEquals(6, pool.idleCount());
+
+    // Only 2 objects are in use during the next period
+    pool.release(pool.acquire());
+    pool.release(pool.acquire());
+    Cat a = pool.acquire();
+    Cat b = pool.acquire();
+    pool.release(a);
+    pool.release(b);
+
+    advanceMillis(500);
+    pool.trim();
+    assertEquals(6, pool.idleCount());
+
+    advanceMillis(500);
+    pool.trim();
+    assertEquals(2, pool.idleCount());
+    // The most recently used objects are kept
+    assertSame(b, pool.acquire());
+    assertSame(a, pool.acquire());
+  }
+
+  @Test
+  void trim_withoutIdlePeriod_shouldKeepIdleObjects() {
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new).capacity(16).clock(() -> nanos[0]).build();
+    pool.ensureIdle(10);
+
+    for (int i = 0; i < 5; i++) {
+      advanceMillis(60_000);
+      pool.trim();
+    }
+    assertEquals(10, pool.idleCount());
+  }
+
+  @Test
+  void trim_afterPeakWindow_shouldShrinkWithoutLosingRecentObjects() {
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new)
+            .capacity(64)
+            .peakWindow(1000)
+            .clock(() -> nanos[0])
+            .build();
+    pool.ensureIdle(3);
+    Cat top = pool.acquire();
+    pool.release(top);
+
+    advanceMillis(2000);
+    pool.trim();
+
+    assertEquals(3, pool.idleCount());
+    assertSame(top, pool.acquire());
+  }
+
+  @Test
+  void trimEvery_shouldTrimIdlePoolWithoutOwner() throws InterruptedException {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    AtomicLong clock = new AtomicLong();
+    try (StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new)
+            .capacity(16)
+            .clock(clock::get)
+            .idlePeriod(1, TimeUnit.SECONDS)
+            .trimEvery(10, TimeUnit.MILLISECONDS, scheduler)
+            .build()) {
+      pool.ensureIdle(4);
+      // Starts a period in which nothing is used
+      clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      Thread.sleep(100);
+      assertEquals(4, pool.idleCount());
+
+      // No acquire or release from here on
+      clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (pool.idleCount() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, pool.idleCount());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  void clear_withTrimmer_shouldDestroyWithoutHoldingTheLock() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    ExecutorService other = Executors.newSingleThreadExecutor();
+    AtomicReference<StackObjectPool<Cat>> poolRef = new AtomicReference<>();
+    List<Cat> acquiredWhileDestroying = new ArrayList<>();
+    PooledObjectPolicy<Cat> policy =
+        new PooledObjectPolicy<>() {
+          @Override
+          public void destroyAll(List<Cat> objects) {
+            // Would time out if the lock were still held by this thread
+            try {
+              acquiredWhileDestroying.add(
+                  other.submit(() -> poolRef.get().acquire()).get(5, TimeUnit.SECONDS));
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+    try (StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new)
+            .policy(policy)
+            .trimEvery(1, TimeUnit.HOURS, scheduler)
+            .build()) {
+      poolRef.set(pool);
+      pool.ensureIdle(4);
+
+      pool.clear();
+      assertEquals(1, acquiredWhileDestroying.size());
+    } finally {
+      scheduler.shutdownNow();
+      other.shutdownNow();
+    }
+  }
+
+  @Test
+  void trim_withTrimmer_shouldCreateWithoutHoldingTheLock() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    ExecutorService other = Executors.newSingleThreadExecutor();
+    AtomicReference<StackObjectPool<Cat>> poolRef = new AtomicReference<>();
+    AtomicBoolean releaseFromOtherThread = new AtomicBoolean(false);
+    Supplier<Cat> factory =
+        () -> {
+          if (releaseFromOtherThread.compareAndSet(true, false)) {
+            // Would time out if the lock were still held by this thread
+            try {
+              other.submit(() -> poolRef.get().release(new Cat())).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }
+          return new Cat();
+        };
+    try (StackObjectPool<Cat> pool =
+        StackObjectPool.builder(factory)
+            .minIdle(4, 4)
+            .trimEvery(1, TimeUnit.HOURS, scheduler)
+            .build()) {
+      poolRef.set(pool);
+
+      releaseFromOtherThread.set(true);
+      pool.trim();
+      assertFalse(releaseFromOtherThread.get());
+      // 4 created, plus the one released meanwhile
+      assertEquals(5, pool.idleCount());
+    } finally {
+      scheduler.shutdownNow();
+      other.shutdownNow();
+    }
+  }
+
+  @Test
+  void release_whenExpanding_shouldNotCallFactory() {
+    AtomicInteger created = new AtomicInteger();
+    StackObjectPool<Cat> pool = StackObjectPool.builder(Cat::new).capacity(2).build();
+    StackObjectPool<Cat> counting =
+        StackObjectPool.builder(
+                () -> {
+                  created.incrementAndGet();
+                  return new Cat();
+                })
+            .capacity(2)
+            .build();
+
+    for (int i = 0; i < 100; i++) {
+      counting.release(pool.acquire());
+    }
+    assertEquals(0, created.get());
+    assertEquals(100, counting.idleCount());
+  }
+
+  @Test
+  void prefill_shouldCreateAtMostTheGivenNumberOfObjects() {
+    StackObjectPool<Cat> pool = StackObjectPool.builder(Cat::new).capacity(2).build();
+
+    assertEquals(7, pool.prefill(10, 3));
+    assertEquals(3, pool.idleCount());
+    assertEquals(0, pool.prefill(10, 100));
+    assertEquals(10, pool.idleCount());
+    assertEquals(0, pool.prefill(5, 100));
+    assertEquals(10, pool.idleCount());
+  }
+
+  @Test
+  void trim_withMinIdle_shouldPrefillInStepsAndKeepMinIdle() {
+    StackObjectPool<Cat> pool =
+        StackObjectPool.builder(Cat::new)
+            .capacity(16)
+            .clock(() -> nanos[0])
+            .idlePeriod(1, TimeUnit.SECONDS)
+            .minIdle(5, 2)
+            .build();
+    for (int i = 0; i < 3; i++) {
+      pool.trim();
+    }
+    assertEquals(5, pool.idleCount());
+
+    pool.ensureIdle(8);
+    advanceMillis(1000);
+    pool.trim();
+    advanceMillis(1000);
+    pool.trim();
+    assertEquals(5, pool.idleCount());
+  }
+}
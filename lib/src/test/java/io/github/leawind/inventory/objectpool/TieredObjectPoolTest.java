@@ -0,0 +1,104 @@
+package io.github.leawind.inventory.objectpool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class TieredObjectPoolTest {
+
+  @Test
+  void release_whenHotTierIsFull_shouldDemoteLeastRecentHalf() {
+    TieredObjectPool<Cat> pool = TieredObjectPool.builder(Cat::new).hotCapacity(4).build();
+    List<Cat> cats = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Cat cat = new Cat();
+      cat.id = i;
+      cats.add(cat);
+      pool.release(cat);
+    }
+
+    assertEquals(3, pool.hotCount());
+    assertEquals(2, pool.cold().idleCount());
+    assertEquals(5, pool.idleCount());
+
+    // Hot tier first, most recent first, then the cold tier
+    for (int id : new int[] {4, 3, 2, 1, 0}) {
+      assertEquals(id, pool.acquire().id);
+    }
+  }
+
+  @Test
+  void shortLivedObjects_shouldStayInHotTier() {
+    TieredObjectPool<Cat> pool = TieredObjectPool.builder(Cat::new).hotCapacity(4).build();
+    pool.ensureIdle(20);
+    assertEquals(0, pool.hotCount());
+
+    Cat first = pool.acquire();
+    pool.release(first);
+    for (int i = 0; i < 100; i++) {
+      Cat cat = pool.acquire();
+      assertSame(first, cat);
+      pool.release(cat);
+    }
+    assertEquals(1, pool.hotCount());
+    assertEquals(19, pool.cold().idleCount());
+  }
+
+  @Test
+  void trim_shouldOnlyTrimColdTier() {
+    long[] nanos = {0};
+    TieredObjectPool<Cat> pool =
+        TieredObjectPool.builder(Cat::new)
+            .hotCapacity(4)
+            .cold(cold -> cold.clock(() -> nanos[0]).idlePeriod(1, TimeUnit.SECONDS))
+            .build();
+    List<Cat> cats = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      cats.add(pool.acquire());
+    }
+    cats.forEach(pool::release);
+    assertEquals(4, pool.hotCount());
+    assertEquals(6, pool.cold().idleCount());
+
+    nanos[0] += TimeUnit.SECONDS.toNanos(1);
+    pool.trim();
+    nanos[0] += TimeUnit.SECONDS.toNanos(1);
+    pool.trim();
+
+    assertEquals(0, pool.cold().idleCount());
+    assertEquals(4, pool.hotCount());
+  }
+
+  @Test
+  void policy_shouldResetOnceAndDestroyBothTiers() {
+    int[] resets = {0};
+    List<Cat> destroyed = new ArrayList<>();
+    TieredObjectPool<Cat> pool =
+        TieredObjectPool.builder(Cat::new)
+            .hotCapacity(2)
+            .policy(
+                new PooledObjectPolicy<>() {
+                  @Override
+                  public void reset(Cat cat) {
+                    resets[0]++;
+                  }
+
+                  @Override
+                  public void destroy(Cat cat) {
+                    destroyed.add(cat);
+                  }
+                })
+            .build();
+    for (int i = 0; i < 3; i++) {
+      pool.release(new Cat());
+    }
+    assertEquals(3, resets[0]);
+
+    pool.close();
+    assertEquals(3, destroyed.size());
+    assertEquals(0, pool.idleCount());
+  }
+}
@@ -2,6 +2,7 @@ package io.github.leawind.inventory.windowpeak;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -84,4 +85,49 @@ class BucketedWindowPeakEstimatorTest {
 
     assertEquals(30, estimator.peak());
   }
+
+  @Test
+  @DisplayName("Should accept nanoTime timestamps without truncation")
+  void testNanoTimestamps() {
+    long second = 1_000_000_000L;
+    WindowPeakEstimator estimator = new BucketedWindowPeakEstimator(5 * second, second);
+    long start = -3 * second - 1; // nanoTime may be negative
+
+    estimator.record(100, start);
+    estimator.record(50, start + 2 * second);
+    assertEquals(100, estimator.peak());
+
+    estimator.record(10, start + 5 * second);
+    assertEquals(50, estimator.peak(), "The value 100 should have expired");
+  }
+
+  @Test
+  @DisplayName("Should match the maximum of the samples in the last buckets")
+  void testMatchesBruteForce() {
+    Random random = new Random(42);
+    for (int[] sizes : new int[][] {{100, 100}, {200, 100}, {1000, 100}, {1000, 7}}) {
+      int windowSize = sizes[0];
+      int bucketSize = sizes[1];
+      int bucketCount = (int) Math.ceil((double) windowSize / bucketSize);
+      WindowPeakEstimator estimator = new BucketedWindowPeakEstimator(windowSize, bucketSize);
+
+      int count = 3000;
+      int[] sampleBuckets = new int[count];
+      int[] samples = new int[count];
+      int now = 0;
+      for (int i = 0; i < count; i++) {
+        // Mostly small steps, sometimes a jump over several buckets or the whole window
+        now += random.nextInt(50) == 0 ? random.nextInt(2 * windowSize) : random.nextInt(10);
+        sampleBuckets[i] = now / bucketSize;
+        samples[i] = random.nextInt(1000);
+        estimator.record(samples[i], now);
+
+        int expected = 0;
+        for (int j = i; j >= 0 && sampleBuckets[i] - sampleBuckets[j] < bucketCount; j--) {
+          expected = Math.max(expected, samples[j]);
+        }
+        assertEquals(expected, estimator.peak(), "at sample " + i + " of " + windowSize);
+      }
+    }
+  }
 }
@@ -0,0 +1,148 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording from many threads into {@link ConcurrentWindowPeakEstimator} vs. a {@link
+ * BucketedWindowPeakEstimator} behind a lock, with timestamps from {@link System#nanoTime()}.
+ *
+ * <p>{@code concurrentPeak} measures merging {@code stripes * buckets} buckets, on an estimator
+ * whose window has been filled from many threads.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class ConcurrentWindowPeakEstimatorBenchmark {
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+  private static final long BUCKET = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private ConcurrentWindowPeakEstimator concurrent;
+  private WindowPeakEstimator locked;
+
+  @Setup
+  public void setup() {
+    concurrent = new ConcurrentWindowPeakEstimator(WINDOW, BUCKET);
+    locked = new LockedWindowPeakEstimator(new BucketedWindowPeakEstimator(WINDOW, BUCKET));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void concurrent1Thread() {
+    concurrent.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void concurrent4Threads() {
+    concurrent.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void concurrent16Threads() {
+    concurrent.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void locked1Thread() {
+    locked.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void locked4Threads() {
+    locked.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void locked16Threads() {
+    locked.record(ThreadLocalRandom.current().nextInt(1 << 16), System.nanoTime());
+  }
+
+  @Benchmark
+  public int concurrentPeak(Filled filled) {
+    return filled.estimator.peak();
+  }
+
+  @Benchmark
+  public int lockedPeak(Filled filled) {
+    return filled.locked.peak();
+  }
+
+  /** Estimators with a sample in every bucket of the window, recorded from many threads */
+  @State(Scope.Benchmark)
+  public static class Filled {
+    /** Stripes of the concurrent estimator, 0 for the default of one per available processor */
+    @Param({"0", "1", "16"})
+    public int stripes;
+
+    private ConcurrentWindowPeakEstimator estimator;
+    private WindowPeakEstimator locked;
+
+    @Setup
+    public void setup() throws InterruptedException {
+      estimator =
+          stripes == 0
+              ? new ConcurrentWindowPeakEstimator(WINDOW, BUCKET)
+              : new ConcurrentWindowPeakEstimator(WINDOW, BUCKET, stripes);
+      locked = new LockedWindowPeakEstimator(new BucketedWindowPeakEstimator(WINDOW, BUCKET));
+
+      // Stripes are picked by thread, so enough threads reach most of them
+      long end = System.nanoTime();
+      int threadCount = 4 * Math.max(stripes, Runtime.getRuntime().availableProcessors());
+      Thread[] threads = new Thread[threadCount];
+      for (int i = 0; i < threadCount; i++) {
+        threads[i] =
+            new Thread(
+                () -> {
+                  for (long t = end - WINDOW + BUCKET; t - end <= 0; t += BUCKET) {
+                    int value = ThreadLocalRandom.current().nextInt(1 << 16);
+                    estimator.record(value, t);
+                    locked.record(value, t);
+                  }
+                });
+        threads[i].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+  }
+
+  private static class LockedWindowPeakEstimator implements WindowPeakEstimator {
+    private final WindowPeakEstimator delegate;
+
+    LockedWindowPeakEstimator(WindowPeakEstimator delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void record(int value, long now) {
+      delegate.record(value, now);
+    }
+
+    @Override
+    public synchronized int peak() {
+      return delegate.peak();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.leawind.inventory.windowpeak;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentWindowPeakEstimatorTest {
+
+  @Test
+  @DisplayName("Should initialize with 0")
+  void testInitialState() {
+    WindowPeakEstimator estimator = new ConcurrentWindowPeakEstimator(1000, 100);
+    assertEquals(0, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should clear old values when time advances beyond the window")
+  void testSlidingWindowExpiration() {
+    WindowPeakEstimator estimator = new ConcurrentWindowPeakEstimator(200, 100, 4);
+
+    estimator.record(100, 1000);
+    estimator.record(50, 1100);
+    assertEquals(100, estimator.peak());
+
+    estimator.record(10, 1200);
+    assertEquals(50, estimator.peak(), "The value 100 should have expired");
+
+    // A late sample of an expired bucket is dropped
+    estimator.record(1000, 1050);
+    assertEquals(50, estimator.peak());
+
+    estimator.record(5, 5000);
+    assertEquals(5, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should match BucketedWindowPeakEstimator from a single thread")
+  void testMatchesBucketed() {
+    Random random = new Random(42);
+    for (int[] sizes : new int[][] {{100, 100}, {1000, 100}, {1000, 7}}) {
+      WindowPeakEstimator expected = new BucketedWindowPeakEstimator(sizes[0], sizes[1]);
+      WindowPeakEstimator actual = new ConcurrentWindowPeakEstimator(sizes[0], sizes[1], 2);
+
+      long now = -1_000_000; // Also crosses 0
+      for (int i = 0; i < 3000; i++) {
+        now += random.nextInt(50) == 0 ? random.nextInt(2 * sizes[0]) : random.nextInt(10);
+        int sample = random.nextInt(1000);
+        expected.record(sample, now);
+        actual.record(sample, now);
+        assertEquals(expected.peak(), actual.peak(), "at sample " + i + " of " + sizes[0]);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should keep the maximum recorded by many threads")
+  void testManyThreads() throws InterruptedException {
+    ConcurrentWindowPeakEstimator estimator = new ConcurrentWindowPeakEstimator(1000, 100, 2);
+    int threads = 4;
+    int perThread = 10_000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      Thread worker =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+                }
+                for (int i = 0; i < perThread; i++) {
+                  // All in the same bucket, every thread contends on it
+                  estimator.record(i * threads + id, 500);
+                }
+              });
+      worker.start();
+      workers.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertEquals(perThread * threads - 1, estimator.peak());
+  }
+}
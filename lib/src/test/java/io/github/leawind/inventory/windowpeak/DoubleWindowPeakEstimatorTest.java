@@ -0,0 +1,65 @@
+package io.github.leawind.inventory.windowpeak;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DoubleWindowPeakEstimatorTest {
+
+  @Test
+  @DisplayName("Should initialize with negative infinity")
+  void testInitialState() {
+    DoubleWindowPeakEstimator estimator = new DoubleWindowPeakEstimator(1, TimeUnit.SECONDS);
+    assertEquals(Double.NEGATIVE_INFINITY, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should fall back to the next highest sample when the peak expires")
+  void testExpiration() {
+    long[] nanos = {-TimeUnit.SECONDS.toNanos(1)}; // nanoTime may be negative
+    DoubleWindowPeakEstimator estimator =
+        new DoubleWindowPeakEstimator(100, TimeUnit.MILLISECONDS, () -> nanos[0]);
+
+    estimator.record(0.75);
+    nanos[0] += TimeUnit.MILLISECONDS.toNanos(60);
+    estimator.record(0.5);
+    estimator.record(0.25);
+    assertEquals(0.75, estimator.peak());
+
+    nanos[0] += TimeUnit.MILLISECONDS.toNanos(60);
+    estimator.record(-1.5);
+    assertEquals(0.5, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should ignore NaN samples")
+  void testNaN() {
+    DoubleWindowPeakEstimator estimator = new DoubleWindowPeakEstimator(1, TimeUnit.SECONDS);
+    estimator.record(1.0, 0);
+    estimator.record(Double.NaN, 1);
+    assertEquals(1.0, estimator.peak());
+
+    estimator.record(0.5, 2);
+    assertEquals(1.0, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should order negative samples and signed zeros like doubles")
+  void testNegativeSamples() {
+    DoubleWindowPeakEstimator estimator = new DoubleWindowPeakEstimator(1, TimeUnit.SECONDS);
+    estimator.record(-3.0, 0);
+    estimator.record(-1.0, 1);
+    estimator.record(-2.0, 2);
+    assertEquals(-1.0, estimator.peak());
+
+    estimator.record(-0.0, 3);
+    estimator.record(Double.MIN_VALUE, 4);
+    estimator.record(0.0, 5);
+    assertEquals(Double.MIN_VALUE, estimator.peak());
+
+    estimator.record(Double.POSITIVE_INFINITY, 6);
+    assertEquals(Double.POSITIVE_INFINITY, estimator.peak());
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.leawind.inventory.windowpeak;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongWindowPeakEstimatorTest {
+
+  @Test
+  @DisplayName("Should initialize with MIN_VALUE")
+  void testInitialState() {
+    LongWindowPeakEstimator estimator = new LongWindowPeakEstimator(1, TimeUnit.SECONDS);
+    assertEquals(Long.MIN_VALUE, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should read the injected clock")
+  void testClock() {
+    long[] nanos = {0};
+    LongWindowPeakEstimator estimator =
+        new LongWindowPeakEstimator(1, TimeUnit.SECONDS, () -> nanos[0]);
+
+    estimator.record(1L << 40);
+    nanos[0] += TimeUnit.MILLISECONDS.toNanos(500);
+    estimator.record(3);
+    assertEquals(1L << 40, estimator.peak());
+
+    nanos[0] += TimeUnit.MILLISECONDS.toNanos(501);
+    estimator.record(2);
+    assertEquals(3, estimator.peak(), "1 << 40 should have expired, 3 is still in the window");
+
+    nanos[0] += TimeUnit.SECONDS.toNanos(10);
+    estimator.record(-5);
+    assertEquals(-5, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should handle nanoTime values that wrap around")
+  void testWrapAround() {
+    long window = TimeUnit.SECONDS.toNanos(1);
+    LongWindowPeakEstimator estimator = new LongWindowPeakEstimator(1, TimeUnit.SECONDS);
+
+    long start = Long.MAX_VALUE - window / 2;
+    estimator.record(100, start);
+    estimator.record(10, start + window); // overflows to a negative timestamp
+    assertEquals(100, estimator.peak());
+
+    estimator.record(1, start + window + 1);
+    assertEquals(10, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should keep decreasing samples past the initial capacity")
+  void testGrow() {
+    LongWindowPeakEstimator estimator = new LongWindowPeakEstimator(100, TimeUnit.NANOSECONDS);
+    for (int i = 0; i < 100; i++) {
+      estimator.record(100 - i, i);
+    }
+    for (int i = 0; i < 99; i++) {
+      estimator.record(Long.MIN_VALUE, i + 101);
+      assertEquals(99 - i, estimator.peak());
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package io.github.leawind.inventory.windowpeak;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MonotonicWindowPeakEstimatorTest {
+
+  @Test
+  @DisplayName("Should initialize with MIN_VALUE")
+  void testInitialState() {
+    WindowPeakEstimator estimator = new MonotonicWindowPeakEstimator(1000);
+    assertEquals(Integer.MIN_VALUE, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should fall back to the second highest sample when the peak expires")
+  void testSecondHighestAfterExpiration() {
+    WindowPeakEstimator estimator = new MonotonicWindowPeakEstimator(100);
+
+    estimator.record(100, 1000);
+    estimator.record(80, 1050);
+    estimator.record(20, 1080);
+    assertEquals(100, estimator.peak());
+
+    // 100 expires, 80 is still in the window
+    estimator.record(10, 1101);
+    assertEquals(80, estimator.peak());
+
+    // 80 expires
+    estimator.record(5, 1151);
+    assertEquals(20, estimator.peak());
+
+    // Everything but the new sample expires
+    estimator.record(1, 1500);
+    assertEquals(1, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should keep a sample exactly windowSize old")
+  void testWindowBoundary() {
+    WindowPeakEstimator estimator = new MonotonicWindowPeakEstimator(100);
+
+    estimator.record(50, 0);
+    estimator.record(1, 100);
+    assertEquals(50, estimator.peak());
+
+    estimator.record(1, 101);
+    assertEquals(1, estimator.peak());
+  }
+
+  @Test
+  @DisplayName("Should grow past its initial capacity with decreasing samples")
+  void testGrow() {
+    WindowPeakEstimator estimator = new MonotonicWindowPeakEstimator(1000, 2);
+
+    // Wrap the ring before growing
+    estimator.record(1, 0);
+    estimator.record(0, 1);
+    estimator.record(2, 2);
+    for (int i = 0; i < 100; i++) {
+      estimator.record(-i, 10 + i);
+    }
+    assertEquals(2, estimator.peak());
+
+    // Expire one sample at a time, -i is the peak once everything before it is gone
+    for (int i = 0; i < 100; i++) {
+      estimator.record(Integer.MIN_VALUE, 10 + i + 1000);
+      assertEquals(-i, estimator.peak());
+    }
+  }
+
+  @Test
+  @DisplayName("Should match a brute force window maximum")
+  void testMatchesBruteForce() {
+    int windowSize = 50;
+    int count = 5000;
+    long[] times = new long[count];
+    int[] values = new int[count];
+    Random random = new Random(42);
+    WindowPeakEstimator estimator = new MonotonicWindowPeakEstimator(windowSize, 1);
+
+    long now = Long.MAX_VALUE - 1000; // Also crosses the long overflow
+    for (int i = 0; i < count; i++) {
+      now += random.nextInt(8);
+      times[i] = now;
+      values[i] = random.nextInt(1000);
+      estimator.record(values[i], now);
+
+      int expected = Integer.MIN_VALUE;
+      for (int j = i; j >= 0 && now - times[j] <= windowSize; j--) {
+        expected = Math.max(expected, values[j]);
+      }
+      assertEquals(expected, estimator.peak(), "at sample " + i);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exact window peak of {@code int}, {@code long} and {@code double} samples with {@code long}
+ * timestamps, and with timestamps read from {@link System#nanoTime()} by the estimator.
+ *
+ * <p>{@code intSamplesIntTimestamps} is the baseline: a copy of the estimator as it was with
+ * {@code int} timestamps and values. The other variants are expected to score the same.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PrimitiveWindowPeakEstimatorBenchmark {
+  private static final int SAMPLES = 1 << 12;
+  private static final long WINDOW_NANOS = 1000;
+
+  private final int[] samples = new int[SAMPLES];
+  private long now = Long.MAX_VALUE - SAMPLES; // wraps around during the run
+
+  private IntTimestampEstimator baseline;
+  private MonotonicWindowPeakEstimator intEstimator;
+  private LongWindowPeakEstimator longEstimator;
+  private DoubleWindowPeakEstimator doubleEstimator;
+  private LongWindowPeakEstimator clockedEstimator;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    for (int i = 0; i < SAMPLES; i++) {
+      samples[i] = random.nextInt(1 << 16);
+    }
+    baseline = new IntTimestampEstimator((int) WINDOW_NANOS);
+    intEstimator = new MonotonicWindowPeakEstimator(WINDOW_NANOS);
+    longEstimator = new LongWindowPeakEstimator(WINDOW_NANOS, TimeUnit.NANOSECONDS);
+    doubleEstimator = new DoubleWindowPeakEstimator(WINDOW_NANOS, TimeUnit.NANOSECONDS);
+    clockedEstimator = new LongWindowPeakEstimator(1, TimeUnit.MICROSECONDS);
+  }
+
+  @Benchmark
+  public int intSamplesIntTimestamps() {
+    now++;
+    baseline.record(samples[(int) now & (SAMPLES - 1)], (int) now);
+    return baseline.peak();
+  }
+
+  @Benchmark
+  public int intSamples() {
+    now++;
+    intEstimator.record(samples[(int) now & (SAMPLES - 1)], now);
+    return intEstimator.peak();
+  }
+
+  @Benchmark
+  public long longSamples() {
+    now++;
+    longEstimator.record(samples[(int) now & (SAMPLES - 1)], now);
+    return longEstimator.peak();
+  }
+
+  @Benchmark
+  public double doubleSamples() {
+    now++;
+    doubleEstimator.record(samples[(int) now & (SAMPLES - 1)], now);
+    return doubleEstimator.peak();
+  }
+
+  /** Includes the cost of {@link System#nanoTime()} */
+  @Benchmark
+  public long longSamplesNanoTime() {
+    now++;
+    clockedEstimator.record(samples[(int) now & (SAMPLES - 1)]);
+    return clockedEstimator.peak();
+  }
+
+  /** Monotonic deque with {@code int} timestamps and values, as before timestamps were widened */
+  private static final class IntTimestampEstimator {
+    private final int windowSize;
+    private int[] times = new int[16];
+    private int[] values = new int[16];
+    private int mask = 15;
+    private int head = 0;
+    private int size = 0;
+
+    IntTimestampEstimator(int windowSize) {
+      this.windowSize = windowSize;
+    }
+
+    void record(int value, int now) {
+      while (size > 0 && now - times[head] > windowSize) {
+        head = (head + 1) & mask;
+        size--;
+      }
+      while (size > 0 && values[(head + size - 1) & mask] <= value) {
+        size--;
+      }
+      if (size == times.length) {
+        grow();
+      }
+      int tail = (head + size) & mask;
+      times[tail] = now;
+      values[tail] = value;
+      size++;
+    }
+
+    int peak() {
+      return size == 0 ? Integer.MIN_VALUE : values[head];
+    }
+
+    private void grow() {
+      int capacity = times.length << 1;
+      int[] newTimes = new int[capacity];
+      int[] newValues = new int[capacity];
+      int first = times.length - head;
+      System.arraycopy(times, head, newTimes, 0, first);
+      System.arraycopy(times, 0, newTimes, first, head);
+      System.arraycopy(values, head, newValues, 0, first);
+      System.arraycopy(values, 0, newValues, first, head);
+      times = newTimes;
+      values = newValues;
+      mask = capacity - 1;
+      head = 0;
+    }
+  }
+}
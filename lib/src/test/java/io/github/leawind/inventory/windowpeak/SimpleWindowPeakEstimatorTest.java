@@ -77,4 +77,19 @@ class SimpleWindowPeakEstimatorTest {
     estimator.record(1, 301);
     assertEquals(1, estimator.peak());
   }
+
+  @Test
+  @DisplayName("Should accept nanoTime timestamps without truncation")
+  void testNanoTimestamps() {
+    long second = 1_000_000_000L;
+    SimpleWindowPeakEstimator estimator = new SimpleWindowPeakEstimator(10 * second);
+    long start = Long.MAX_VALUE - second;
+
+    estimator.record(100, start);
+    estimator.record(50, start + 5 * second); // overflows to a negative timestamp
+    assertEquals(100, estimator.peak());
+
+    estimator.record(10, start + 11 * second);
+    assertEquals(10, estimator.peak());
+  }
 }
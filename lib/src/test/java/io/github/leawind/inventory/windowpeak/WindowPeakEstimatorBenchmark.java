@@ -0,0 +1,79 @@
+package io.github.leawind.inventory.windowpeak;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Record and peak cost of the {@link WindowPeakEstimator} implementations, on random samples one
+ * time unit apart.
+ *
+ * <p>Run with {@code -PjmhProfilers=gc}, {@code gc.alloc.rate.norm} is expected to be 0 B/op.
+ */
+@SuppressWarnings("unused")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class WindowPeakEstimatorBenchmark {
+  private static final int SAMPLES = 1 << 12;
+
+  @Param({"simple", "bucketed", "monotonic"})
+  public String estimator;
+
+  @Param({"1000"})
+  public int windowSize;
+
+  /** Only used by the bucketed estimator */
+  @Param({"10", "1000"})
+  public int bucketCount;
+
+  private WindowPeakEstimator target;
+  private final int[] samples = new int[SAMPLES];
+  private long now = 0;
+
+  @Setup
+  public void setup() {
+    target =
+        switch (estimator) {
+          case "simple" -> new SimpleWindowPeakEstimator(windowSize);
+          case "bucketed" -> new BucketedWindowPeakEstimator(windowSize, windowSize / bucketCount);
+          case "monotonic" -> new MonotonicWindowPeakEstimator(windowSize);
+          default -> throw new IllegalArgumentException(estimator);
+        };
+    Random random = new Random(0);
+    for (int i = 0; i < SAMPLES; i++) {
+      samples[i] = random.nextInt(1 << 16);
+    }
+  }
+
+  @Benchmark
+  public void record() {
+    now++;
+    target.record(samples[(int) now & (SAMPLES - 1)], now);
+  }
+
+  @Benchmark
+  public int peak() {
+    return target.peak();
+  }
+
+  @Benchmark
+  public int recordAndPeak() {
+    now++;
+    target.record(samples[(int) now & (SAMPLES - 1)], now);
+    return target.peak();
+  }
+}